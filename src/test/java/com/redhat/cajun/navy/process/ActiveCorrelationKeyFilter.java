@@ -0,0 +1,71 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jbpm.workflow.instance.impl.WorkflowProcessInstanceImpl;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.runtime.process.ProcessInstance;
+
+/**
+ * In-memory set of the correlation keys of the process instances started in this JVM and not completed yet, checked
+ * before a correlated start so that a duplicate incident is rejected without a transaction, instead of at the unique
+ * constraint of the correlation key table.
+ *
+ * A key is acquired before the start, released when the start fails, and released when the process instance completes
+ * or is aborted. The filter only knows about the process instances it has seen: a key it does not hold may still be in
+ * use, in which case the database rejects the start as before.
+ *
+ * Off unless <code>-Djbpm.correlationKeyFilter=true</code>; {@link DuplicateStartBenchmark} always creates one, to
+ * compare it with the rejection by the database.
+ */
+public class ActiveCorrelationKeyFilter extends DefaultProcessEventListener {
+
+    public static final String ENABLED_PROPERTY = "jbpm.correlationKeyFilter";
+
+    private final Set<String> activeKeys = ConcurrentHashMap.newKeySet();
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Returns false if a process instance with that correlation key is active already.
+     */
+    public boolean tryAcquire(String correlationKey) {
+        return activeKeys.add(correlationKey);
+    }
+
+    public void release(String correlationKey) {
+        activeKeys.remove(correlationKey);
+    }
+
+    public boolean isActive(String correlationKey) {
+        return activeKeys.contains(correlationKey);
+    }
+
+    public int size() {
+        return activeKeys.size();
+    }
+
+    /**
+     * Replaces the active keys, e.g. with the correlation keys of a restored database.
+     */
+    public void reset(Collection<String> correlationKeys) {
+        activeKeys.clear();
+        activeKeys.addAll(correlationKeys);
+    }
+
+    @Override
+    public void afterProcessCompleted(ProcessCompletedEvent event) {
+        ProcessInstance processInstance = event.getProcessInstance();
+        if (processInstance instanceof WorkflowProcessInstanceImpl) {
+            String correlationKey = ((WorkflowProcessInstanceImpl) processInstance).getCorrelationKey();
+            if (correlationKey != null) {
+                release(correlationKey);
+            }
+        }
+    }
+}
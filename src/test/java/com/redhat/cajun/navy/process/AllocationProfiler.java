@@ -0,0 +1,129 @@
+package com.redhat.cajun.navy.process;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bytes allocated by the calling thread for each engine command of a scenario, by transition (start of a process,
+ * signal type), from <code>com.sun.management.ThreadMXBean.getThreadAllocatedBytes</code>. The allocations of other
+ * threads, e.g. of the jbpm-executor or of a {@link SignalDispatcher} lane which is not the caller, are not counted.
+ *
+ * Enabled for every test with <code>-Djbpm.allocationProfile=true</code>, or by the tests which set
+ * {@link JbpmBaseTestCase#allocationProfiler}. With <code>-Djbpm.allocationBudget=&lt;bytes&gt;</code>, a scenario
+ * fails when a transition allocates more than the budget on average;
+ * <code>-Djbpm.allocationBudget.&lt;transition&gt;=&lt;bytes&gt;</code> sets the budget of one transition, e.g.
+ * <code>-Djbpm.allocationBudget.signal:MissionStarted=2000000</code>.
+ *
+ * The JVM measures the allocations of the threads from the creation of the first profiler, not before.
+ */
+public class AllocationProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(AllocationProfiler.class);
+
+    public static final String ENABLED_PROPERTY = "jbpm.allocationProfile";
+
+    public static final String BUDGET_PROPERTY = "jbpm.allocationBudget";
+
+    private static final com.sun.management.ThreadMXBean threads = threadMXBean();
+
+    private final Map<String, Transition> transitions = new ConcurrentHashMap<>();
+
+    private static final class Transition {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final AtomicLong max = new AtomicLong();
+
+        private long mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : bytes.sum() / n;
+        }
+    }
+
+    public AllocationProfiler() {
+        if (threads == null) {
+            throw new IllegalStateException("The JVM does not measure the allocations of a thread");
+        }
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return isSupported() && Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Whether the JVM measures the allocations of a thread, whatever <code>-Djbpm.allocationProfile</code>.
+     */
+    public static boolean isSupported() {
+        return threads != null;
+    }
+
+    /**
+     * The bytes allocated so far by the calling thread, to pass to {@link #end(String, long)}.
+     */
+    public long begin() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public void end(String transition, long begin) {
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - begin;
+        Transition stats = transitions.computeIfAbsent(transition, k -> new Transition());
+        stats.count.increment();
+        stats.bytes.add(allocated);
+        stats.max.accumulateAndGet(allocated, Math::max);
+    }
+
+    public long meanBytes(String transition) {
+        Transition stats = transitions.get(transition);
+        return stats == null ? 0 : stats.mean();
+    }
+
+    /**
+     * Logs the allocations of every transition of the scenario, the largest first.
+     */
+    public void report(String scenario) {
+        List<Map.Entry<String, Transition>> entries = new ArrayList<>(transitions.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().bytes.sum(), a.getValue().bytes.sum()));
+        for (Map.Entry<String, Transition> entry : entries) {
+            Transition stats = entry.getValue();
+            log.info("Allocations {} {}: n={} mean={} KB max={} KB total={} KB", scenario, entry.getKey(), stats.count.sum(),
+                    stats.mean() / 1024, stats.max.get() / 1024, stats.bytes.sum() / 1024);
+        }
+    }
+
+    /**
+     * Fails with the transitions which allocate more than their budget on average, if a budget is set.
+     */
+    public void assertWithinBudget(String scenario) {
+        List<String> overBudget = new ArrayList<>();
+        for (Map.Entry<String, Transition> entry : transitions.entrySet()) {
+            Long budget = Long.getLong(BUDGET_PROPERTY + "." + entry.getKey(), Long.getLong(BUDGET_PROPERTY));
+            if (budget != null && entry.getValue().mean() > budget) {
+                overBudget.add(entry.getKey() + " allocates " + entry.getValue().mean() + " bytes (budget " + budget + ")");
+            }
+        }
+        if (!overBudget.isEmpty()) {
+            throw new AssertionError("Allocation budget exceeded in " + scenario + ": " + String.join(", ", overBudget));
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.isThreadAllocatedMemorySupported() ? bean : null;
+    }
+}
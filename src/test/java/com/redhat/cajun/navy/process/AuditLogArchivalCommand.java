@@ -0,0 +1,132 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.Date;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.jbpm.process.audit.JPAService;
+import org.jbpm.process.core.timer.DateTimeUtils;
+import org.jbpm.runtime.manager.impl.jpa.EntityManagerFactoryManager;
+import org.kie.api.executor.Command;
+import org.kie.api.executor.CommandContext;
+import org.kie.api.executor.ExecutionResults;
+import org.kie.api.executor.Reoccurring;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * jbpm-executor command which deletes the node and variable instance logs of completed (or aborted) process instances,
+ * in batches of a bounded number of process instances, each batch in its own transaction. The process instance log is
+ * kept as the record of the incident.
+ *
+ * Unlike <code>LogCleanupCommand</code>, which deletes everything older than a date in one statement per table, an
+ * execution never deletes more than <code>BatchSize * MaxBatches</code> process instances, so it does not hold locks on
+ * the log tables for long, and keeps up with the load when it reoccurs often enough.
+ *
+ * Command data:
+ * <ul>
+ *     <li><code>EmfName</code>: persistence unit of the entity manager factory, defaults to <code>org.jbpm.persistence.jpa</code></li>
+ *     <li><code>BatchSize</code>: process instances per transaction, defaults to 100</li>
+ *     <li><code>MaxBatches</code>: transactions per execution, defaults to 10</li>
+ *     <li><code>OlderThanPeriod</code>: only process instances completed at least that long ago, e.g. <code>1h</code></li>
+ *     <li><code>NextRun</code>: delay before the next execution, e.g. <code>1m</code>; runs once if not set</li>
+ * </ul>
+ */
+public class AuditLogArchivalCommand implements Command, Reoccurring {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogArchivalCommand.class);
+
+    private long nextScheduleTimeAdd = -1;
+
+    @Override
+    public Date getScheduleTime() {
+        if (nextScheduleTimeAdd < 0) {
+            return null;
+        }
+        return new Date(System.currentTimeMillis() + nextScheduleTimeAdd);
+    }
+
+    @Override
+    public ExecutionResults execute(CommandContext ctx) throws Exception {
+        String emfName = data(ctx, "EmfName", "org.jbpm.persistence.jpa");
+        int batchSize = Integer.parseInt(data(ctx, "BatchSize", "100"));
+        int maxBatches = Integer.parseInt(data(ctx, "MaxBatches", "10"));
+        String olderThanPeriod = data(ctx, "OlderThanPeriod", null);
+        String nextRun = data(ctx, "NextRun", null);
+        if (nextRun != null) {
+            nextScheduleTimeAdd = DateTimeUtils.parseDateAsDuration(nextRun);
+        }
+
+        Date completedBefore = new Date(System.currentTimeMillis()
+                - (olderThanPeriod == null ? 0 : DateTimeUtils.parseDateAsDuration(olderThanPeriod)));
+        ArchivalService service = new ArchivalService(EntityManagerFactoryManager.get().getOrCreate(emfName));
+
+        long start = System.nanoTime();
+        int processInstances = 0;
+        int nodeInstanceLogs = 0;
+        int variableInstanceLogs = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int[] deleted = service.deleteBatch(completedBefore, batchSize);
+            processInstances += deleted[0];
+            nodeInstanceLogs += deleted[1];
+            variableInstanceLogs += deleted[2];
+            if (deleted[0] < batchSize) {
+                break;
+            }
+        }
+        log.debug("Archived {} process instances: {} node instance logs and {} variable instance logs removed in {} ms",
+                processInstances, nodeInstanceLogs, variableInstanceLogs, (System.nanoTime() - start) / 1000000);
+
+        ExecutionResults results = new ExecutionResults();
+        results.setData("ProcessInstancesArchived", processInstances);
+        results.setData("NodeInstanceLogRemoved", nodeInstanceLogs);
+        results.setData("VariableInstanceLogRemoved", variableInstanceLogs);
+        return results;
+    }
+
+    private static String data(CommandContext ctx, String name, String defaultValue) {
+        Object value = ctx.getData(name);
+        return value == null ? defaultValue : value.toString();
+    }
+
+    private static class ArchivalService extends JPAService {
+
+        ArchivalService(EntityManagerFactory emf) {
+            super(emf);
+        }
+
+        /**
+         * Deletes the logs of at most <code>batchSize</code> completed process instances which still have node instance
+         * logs, in one transaction. Returns the number of process instances, node instance logs and variable instance logs.
+         */
+        int[] deleteBatch(Date completedBefore, int batchSize) {
+            EntityManager em = getEntityManager();
+            Object txOwner = joinTransaction(em);
+            try {
+                List<Long> ids = em.createQuery("select p.processInstanceId from ProcessInstanceLog p "
+                        + "where p.status in (:completed, :aborted) and p.end < :completedBefore "
+                        + "and exists (select n.id from NodeInstanceLog n where n.processInstanceId = p.processInstanceId) "
+                        + "order by p.processInstanceId", Long.class)
+                        .setParameter("completed", ProcessInstance.STATE_COMPLETED)
+                        .setParameter("aborted", ProcessInstance.STATE_ABORTED)
+                        .setParameter("completedBefore", completedBefore)
+                        .setMaxResults(batchSize)
+                        .getResultList();
+                if (ids.isEmpty()) {
+                    return new int[3];
+                }
+                int nodeInstanceLogs = em.createQuery("delete from NodeInstanceLog l where l.processInstanceId in (:ids)")
+                        .setParameter("ids", ids)
+                        .executeUpdate();
+                int variableInstanceLogs = em.createQuery("delete from VariableInstanceLog l where l.processInstanceId in (:ids)")
+                        .setParameter("ids", ids)
+                        .executeUpdate();
+                return new int[] {ids.size(), nodeInstanceLogs, variableInstanceLogs};
+            } finally {
+                closeEntityManager(em, txOwner);
+            }
+        }
+    }
+}
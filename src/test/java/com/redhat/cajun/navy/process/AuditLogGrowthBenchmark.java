@@ -0,0 +1,124 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+
+import org.jbpm.process.audit.JPAAuditLogService;
+import org.junit.Test;
+import org.kie.api.executor.CommandContext;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Completes incidents round after round, and measures the latency of the audit queries on the active incidents against
+ * the size of the node and variable instance log tables, without any cleanup and with the {@link AuditLogArchivalCommand}
+ * reoccurring on the jbpm-executor.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=AuditLogGrowthBenchmark -Dbenchmark.rounds=20 -Dbenchmark.incidents=200</code>.
+ * The p99 of the audit queries of the last round is reported against <code>benchmark.auditBudgetMs</code>.
+ */
+public class AuditLogGrowthBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogGrowthBenchmark.class);
+
+    @Test
+    public void withoutArchival() throws Exception {
+        sustainedLoad(false);
+    }
+
+    @Test
+    public void withArchival() throws Exception {
+        sustainedLoad(true);
+    }
+
+    private void sustainedLoad(boolean archival) throws Exception {
+        int rounds = BenchmarkSettings.intValue("benchmark.rounds", 10);
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 100);
+        int activeIncidents = BenchmarkSettings.intValue("benchmark.activeIncidents", 20);
+        int budgetMillis = BenchmarkSettings.intValue("benchmark.auditBudgetMs", 5);
+        String mode = archival ? "archival" : "no cleanup";
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "audit-log-growth", stubWorkItemHandlers(), INCIDENT_PROCESS);
+        JPAAuditLogService auditLogService = new JPAAuditLogService(getEmf());
+
+        if (archival) {
+            CommandContext ctx = new CommandContext();
+            ctx.setData("BatchSize", String.valueOf(BenchmarkSettings.intValue("benchmark.archivalBatchSize", 100)));
+            ctx.setData("MaxBatches", String.valueOf(BenchmarkSettings.intValue("benchmark.archivalMaxBatches", 10)));
+            ctx.setData("NextRun", System.getProperty("benchmark.archivalInterval", "1s"));
+            getExecutorService().scheduleRequest(AuditLogArchivalCommand.class.getName(), ctx);
+        }
+
+        List<Long> active = new ArrayList<>();
+        for (int i = 0; i < activeIncidents; i++) {
+            active.add(startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60S"));
+        }
+
+        LatencyStats queries = new LatencyStats();
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < incidents; i++) {
+                completeLifecycle(startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60S"));
+            }
+            long elapsed = System.nanoTime() - start;
+
+            queries.reset();
+            for (long pId : active) {
+                long queryStart = System.nanoTime();
+                auditLogService.findNodeInstances(pId);
+                auditLogService.findVariableInstances(pId);
+                queries.record(System.nanoTime() - queryStart);
+            }
+            log.info("Audit log growth ({}): round={} throughput={} incidents/s NodeInstanceLog={} VariableInstanceLog={} audit queries {}",
+                    mode, round, String.format("%.1f", incidents * 1e9 / elapsed), count("NodeInstanceLog"),
+                    count("VariableInstanceLog"), queries);
+        }
+
+        long p99 = queries.percentile(99);
+        log.info("Audit log growth ({}): audit query p99 {} ms, {} the budget of {} ms", mode,
+                String.format("%.2f", p99 / 1e6), p99 <= TimeUnit.MILLISECONDS.toNanos(budgetMillis) ? "within" : "over",
+                budgetMillis);
+
+        if (archival) {
+            // the archival catches up with the completed incidents
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+            while (completedWithLogs() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertThat(completedWithLogs(), equalTo(0L));
+            for (long pId : active) {
+                assertThat(auditLogService.findNodeInstances(pId).isEmpty(), equalTo(false));
+            }
+        }
+        auditLogService.dispose();
+    }
+
+    private long completedWithLogs() {
+        EntityManager em = getEmf().createEntityManager();
+        try {
+            return em.createQuery("select count(distinct n.processInstanceId) from NodeInstanceLog n, ProcessInstanceLog p "
+                    + "where p.processInstanceId = n.processInstanceId and p.status in (:completed, :aborted)", Long.class)
+                    .setParameter("completed", ProcessInstance.STATE_COMPLETED)
+                    .setParameter("aborted", ProcessInstance.STATE_ABORTED)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private long count(String entity) {
+        EntityManager em = getEmf().createEntityManager();
+        try {
+            return em.createQuery("select count(l) from " + entity + " l", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.redhat.cajun.navy.process;
+
+/**
+ * Reads benchmark parameters from system properties, e.g. <code>-Dbenchmark.fleetSizes=10,100,1000</code>.
+ */
+final class BenchmarkSettings {
+
+    private BenchmarkSettings() {
+    }
+
+    static int intValue(String property, int defaultValue) {
+        return Integer.getInteger(property, defaultValue);
+    }
+
+    static int[] intList(String property, String defaultValue) {
+        String[] values = System.getProperty(property, defaultValue).split(",");
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Integer.parseInt(values[i].trim());
+        }
+        return result;
+    }
+
+    static String[] stringList(String property, String defaultValue) {
+        String[] values = System.getProperty(property, defaultValue).split(",");
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i].trim();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,232 @@
+package com.redhat.cajun.navy.process;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Status;
+
+/**
+ * Compact binary payloads: a type tag, a bitmask of the fields present, then the fields as variable length integers and
+ * length prefixed strings. Every field of the {@link Mission} and {@link Incident} model is encoded.
+ *
+ * Coordinates are encoded as the scale and the unscaled value of the <code>BigDecimal</code>. For the usual coordinates
+ * (at most 15 digits) the unscaled value is computed from <code>doubleValue()</code>, which does not allocate on JDK 9 and
+ * later; larger values fall back to <code>unscaledValue()</code>.
+ */
+public class BinaryPayloadCodec implements PayloadCodec {
+
+    private static final int MISSION = 1;
+
+    private static final int INCIDENT = 2;
+
+    private static final int COMPACT_DECIMAL = 0;
+
+    private static final int BIG_DECIMAL = 1;
+
+    private static final int MAX_COMPACT_DIGITS = 15;
+
+    private static final double[] POWERS_OF_TEN = new double[MAX_COMPACT_DIGITS + 1];
+
+    private static final Status[] STATUSES = Status.values();
+
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = Math.pow(10, i);
+        }
+    }
+
+    // decoding position, reused across messages
+    private byte[] data;
+
+    private int position;
+
+    private int limit;
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public void encode(Object payload, PayloadBuffer buffer) {
+        buffer.reset();
+        if (payload instanceof Mission) {
+            Mission mission = (Mission) payload;
+            buffer.writeByte(MISSION);
+            buffer.writeVarLong(bit(mission.getIncidentId(), 0) | bit(mission.getResponderId(), 1) | bit(mission.getResponderStartLat(), 2)
+                    | bit(mission.getResponderStartLong(), 3) | bit(mission.getDestinationLat(), 4)
+                    | bit(mission.getDestinationLong(), 5) | bit(mission.getStatus(), 6));
+            writeString(buffer, mission.getIncidentId());
+            writeString(buffer, mission.getResponderId());
+            writeDecimal(buffer, mission.getResponderStartLat());
+            writeDecimal(buffer, mission.getResponderStartLong());
+            writeDecimal(buffer, mission.getDestinationLat());
+            writeDecimal(buffer, mission.getDestinationLong());
+            if (mission.getStatus() != null) {
+                buffer.writeByte(mission.getStatus().ordinal());
+            }
+        } else if (payload instanceof Incident) {
+            Incident incident = (Incident) payload;
+            buffer.writeByte(INCIDENT);
+            buffer.writeVarLong(bit(incident.getId(), 0) | bit(incident.getLat(), 1) | bit(incident.getLon(), 2)
+                    | bit(incident.getNumberOfPeople(), 3) | bit(incident.getMedicalNeeded(), 4)
+                    | bit(incident.getVictimName(), 5) | bit(incident.getVictimPhoneNumber(), 6)
+                    | bit(incident.getReportedTime(), 7) | bit(incident.getStatus(), 8));
+            writeString(buffer, incident.getId());
+            writeDecimal(buffer, incident.getLat());
+            writeDecimal(buffer, incident.getLon());
+            if (incident.getNumberOfPeople() != null) {
+                buffer.writeZigZag(incident.getNumberOfPeople());
+            }
+            if (incident.getMedicalNeeded() != null) {
+                buffer.writeByte(incident.getMedicalNeeded() ? 1 : 0);
+            }
+            writeString(buffer, incident.getVictimName());
+            writeString(buffer, incident.getVictimPhoneNumber());
+            if (incident.getReportedTime() != null) {
+                buffer.writeZigZag(incident.getReportedTime());
+            }
+            writeString(buffer, incident.getStatus());
+        } else {
+            throw new IllegalArgumentException("Unsupported payload " + (payload == null ? null : payload.getClass()));
+        }
+    }
+
+    @Override
+    public Object decode(String messageType, byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IllegalArgumentException("Payload of " + length + " bytes at " + offset + " outside of an array of "
+                    + data.length + " bytes");
+        }
+        this.data = data;
+        this.position = offset;
+        this.limit = offset + length;
+        try {
+            Object payload = decode();
+            if (position != limit) {
+                throw new IllegalArgumentException("Malformed " + messageType + " payload: " + (limit - position)
+                        + " bytes left over");
+            }
+            return payload;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated " + messageType + " payload of " + length + " bytes", e);
+        } finally {
+            this.data = null;
+        }
+    }
+
+    private Object decode() {
+        int type = readByte();
+        int present = (int) readVarLong();
+        if (type == MISSION) {
+            Mission mission = new Mission();
+            mission.setIncidentId(isPresent(present, 0) ? readString() : null);
+            mission.setResponderId(isPresent(present, 1) ? readString() : null);
+            mission.setResponderStartLat(isPresent(present, 2) ? readDecimal() : null);
+            mission.setResponderStartLong(isPresent(present, 3) ? readDecimal() : null);
+            mission.setDestinationLat(isPresent(present, 4) ? readDecimal() : null);
+            mission.setDestinationLong(isPresent(present, 5) ? readDecimal() : null);
+            mission.setStatus(isPresent(present, 6) ? STATUSES[readByte()] : null);
+            return mission;
+        } else if (type == INCIDENT) {
+            Incident incident = new Incident();
+            incident.setId(isPresent(present, 0) ? readString() : null);
+            incident.setLat(isPresent(present, 1) ? readDecimal() : null);
+            incident.setLon(isPresent(present, 2) ? readDecimal() : null);
+            incident.setNumberOfPeople(isPresent(present, 3) ? (int) readZigZag() : null);
+            incident.setMedicalNeeded(isPresent(present, 4) ? readByte() == 1 : null);
+            incident.setVictimName(isPresent(present, 5) ? readString() : null);
+            incident.setVictimPhoneNumber(isPresent(present, 6) ? readString() : null);
+            incident.setReportedTime(isPresent(present, 7) ? readZigZag() : null);
+            incident.setStatus(isPresent(present, 8) ? readString() : null);
+            return incident;
+        }
+        throw new IllegalArgumentException("Unknown payload type " + type);
+    }
+
+    private static int bit(Object field, int index) {
+        return field != null ? 1 << index : 0;
+    }
+
+    private static boolean isPresent(int present, int field) {
+        return (present & (1 << field)) != 0;
+    }
+
+    private static void writeString(PayloadBuffer buffer, String value) {
+        if (value != null && !buffer.writeAscii(value)) {
+            buffer.writeLengthPrefixed(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeDecimal(PayloadBuffer buffer, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        int scale = value.scale();
+        if (scale >= 0 && scale <= MAX_COMPACT_DIGITS && value.precision() <= MAX_COMPACT_DIGITS) {
+            // exact: the unscaled value is below 2^52, the rounding error of the double stays below 0.5
+            buffer.writeByte(COMPACT_DECIMAL);
+            buffer.writeByte(scale);
+            buffer.writeZigZag(Math.round(value.doubleValue() * POWERS_OF_TEN[scale]));
+        } else {
+            buffer.writeByte(BIG_DECIMAL);
+            buffer.writeZigZag(scale);
+            buffer.writeLengthPrefixed(value.unscaledValue().toByteArray());
+        }
+    }
+
+    // every read checks the end of the payload, not only the end of the array
+    private int readByte() {
+        if (position >= limit) {
+            throw new IndexOutOfBoundsException("End of payload at " + position);
+        }
+        return data[position++];
+    }
+
+    private void checkRemaining(int length) {
+        if (length < 0 || length > limit - position) {
+            throw new IndexOutOfBoundsException(length + " bytes after the end of payload at " + position);
+        }
+    }
+
+    private String readString() {
+        int length = (int) readVarLong();
+        checkRemaining(length);
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private BigDecimal readDecimal() {
+        if (readByte() == COMPACT_DECIMAL) {
+            int scale = readByte();
+            return BigDecimal.valueOf(readZigZag(), scale);
+        }
+        int scale = (int) readZigZag();
+        int length = (int) readVarLong();
+        checkRemaining(length);
+        byte[] unscaled = new byte[length];
+        System.arraycopy(data, position, unscaled, 0, length);
+        position += length;
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private long readZigZag() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.redhat.cajun.navy.process;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Key of a value held in a {@link ReferenceCache}. Stored in process state instead of the value itself.
+ */
+public final class CacheReference implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String cache;
+
+    private final long version;
+
+    public CacheReference(String cache, long version) {
+        this.cache = cache;
+        this.version = version;
+    }
+
+    public String getCache() {
+        return cache;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheReference)) {
+            return false;
+        }
+        CacheReference that = (CacheReference) o;
+        return version == that.version && cache.equals(that.cache);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cache, version);
+    }
+
+    @Override
+    public String toString() {
+        return cache + ":" + version;
+    }
+}
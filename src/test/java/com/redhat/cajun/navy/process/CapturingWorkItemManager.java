@@ -0,0 +1,39 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.Map;
+
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+
+/**
+ * WorkItemManager which keeps the results of the last completed work item, to invoke work item handlers outside of a
+ * process instance. It does not dispatch work items: the handlers registered on it are ignored.
+ */
+class CapturingWorkItemManager implements WorkItemManager {
+
+    private Map<String, Object> results;
+
+    private boolean aborted;
+
+    @Override
+    public void completeWorkItem(long id, Map<String, Object> results) {
+        this.results = results;
+    }
+
+    @Override
+    public void abortWorkItem(long id) {
+        this.aborted = true;
+    }
+
+    @Override
+    public void registerWorkItemHandler(String workItemName, WorkItemHandler handler) {
+    }
+
+    Map<String, Object> getResults() {
+        return results;
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+}
@@ -0,0 +1,290 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+
+import com.arjuna.ats.arjuna.coordinator.TxControl;
+import org.h2.tools.Server;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.kie.api.runtime.manager.audit.NodeInstanceLog;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.test.util.db.PoolingDataSourceWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the incident lifecycle on several replicas of the process service, each a {@link ClusterNode} in a forked JVM
+ * with its own transaction manager node name, against one H2 database served over TCP by this JVM.
+ *
+ * The signals and the timers of an incident are spread across the nodes: the node which sends ResponderAvailable=false
+ * schedules the assignment timer, then the next node loads the process instance for a signal it does not wait for.
+ * A fraction of the signals (<code>-Dbenchmark.redeliveryPercent</code>, 10%) is sent by two nodes at the same time.
+ *
+ * Reports for every cluster size the throughput of the commands, the optimistic lock conflicts retried by the engine,
+ * the signals redelivered after the engine gave up or after a lock timeout, and the timer firings against one per
+ * incident, from the listeners of the nodes and from the audit log.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=ClusterBenchmark -Dbenchmark.nodes=1,2,4 -Dbenchmark.incidents=500</code>.
+ * The database options can be changed with e.g. <code>-Dbenchmark.databaseOptions=;LOCK_TIMEOUT=10000</code> to compare
+ * with table level locking.
+ */
+public class ClusterBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterBenchmark.class);
+
+    private static final String[] PHASES = {"start", "ResponderUnavailable", "ResponderLocationUpdated", "timers",
+            "ResponderAvailable", "MissionStarted", "VictimPickedUp", "VictimDelivered"};
+
+    private static Server server;
+
+    private static String databaseUrl;
+
+    private final List<Node> cluster = new ArrayList<>();
+
+    @BeforeClass
+    public static void startDatabaseServer() throws Exception {
+        // the nodes are node1..nodeN, the transactions of the benchmark itself are the ones of the schema and the queries
+        TxControl.setXANodeName("coordinator");
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = Server.createTcpServer("-tcpPort", Integer.toString(port), "-tcpDaemon").start();
+        databaseUrl = "jdbc:h2:tcp://localhost:" + port + "/mem:cluster;DB_CLOSE_DELAY=-1"
+                + System.getProperty("benchmark.databaseOptions", ";MVCC=TRUE;LOCK_TIMEOUT=10000");
+    }
+
+    @AfterClass
+    public static void stopDatabaseServer() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    @After
+    public void stopCluster() {
+        for (Node node : cluster) {
+            node.process.destroyForcibly();
+        }
+        cluster.clear();
+    }
+
+    @Override
+    protected PoolingDataSourceWrapper setupPoolingDataSource() {
+        return setupPoolingDataSource("jdbc/jbpm-ds", databaseUrl);
+    }
+
+    @Test
+    public void scaling() throws Exception {
+        int[] nodeCounts = BenchmarkSettings.intList("benchmark.nodes", "1,2");
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 100);
+        long timerDelay = Duration.parse(System.getProperty("benchmark.timerDelay", "PT2S")).toMillis();
+
+        for (int round = 0; round < nodeCounts.length; round++) {
+            int nodes = nodeCounts[round];
+            long firstIncident = (long) round * incidents;
+            for (int i = 0; i < nodes; i++) {
+                cluster.add(new Node(i, nodes, firstIncident));
+            }
+            for (Node node : cluster) {
+                node.await("ready");
+            }
+
+            long commands = 0;
+            long elapsed = 0;
+            Map<String, Long> totals = new LinkedHashMap<>();
+            List<Long> pIds = null;
+            for (String phase : PHASES) {
+                if ("timers".equals(phase)) {
+                    pIds = ClusterNode.processInstanceIds(getEmf(), data, firstIncident, incidents);
+                    awaitTimers(pIds, timerDelay);
+                    continue;
+                }
+                long start = System.nanoTime();
+                for (Node node : cluster) {
+                    node.send(phase);
+                }
+                List<Map<String, String>> replies = new ArrayList<>();
+                for (Node node : cluster) {
+                    replies.add(node.await(phase));
+                }
+                long phaseElapsed = System.nanoTime() - start;
+                elapsed += phaseElapsed;
+                StringBuilder latencies = new StringBuilder();
+                for (int i = 0; i < replies.size(); i++) {
+                    Map<String, String> reply = replies.get(i);
+                    commands += Long.parseLong(reply.get("commands"));
+                    for (String counter : new String[] {"conflicts", "retries", "lockTimeouts", "rejected", "failed"}) {
+                        totals.merge(counter, Long.parseLong(reply.get(counter)), Long::sum);
+                    }
+                    latencies.append(String.format(" node%d p50=%.1fms p99=%.1fms", i + 1,
+                            Long.parseLong(reply.get("p50")) / 1e6, Long.parseLong(reply.get("p99")) / 1e6));
+                }
+                log.info("Cluster nodes={} {}: {} ms{}", nodes, phase, String.format("%.1f", phaseElapsed / 1e6), latencies);
+            }
+
+            Map<String, Integer> firedByNode = new LinkedHashMap<>();
+            for (Node node : cluster) {
+                node.send("report");
+                firedByNode.put(node.name, Integer.parseInt(node.await("report").get("timersFired")));
+            }
+            for (Node node : cluster) {
+                node.send("stop");
+            }
+            for (Node node : cluster) {
+                assertThat(node.process.waitFor(1, TimeUnit.MINUTES) ? node.process.exitValue() : -1, equalTo(0));
+            }
+            cluster.clear();
+
+            Map<Long, Long> timers = committedTimers(pIds);
+            long duplicateTimers = 0;
+            for (long fired : timers.values()) {
+                duplicateTimers += Math.max(0, fired - 1);
+            }
+            int completed = 0;
+            for (long pId : pIds) {
+                if (getLogService().findProcessInstance(pId).getStatus() == ProcessInstance.STATE_COMPLETED) {
+                    completed++;
+                }
+            }
+
+            log.info("Cluster nodes={} incidents={}: throughput={} commands/s {}", nodes, incidents,
+                    String.format("%.1f", commands * 1e9 / elapsed), totals);
+            log.info("Cluster nodes={} incidents={}: timers committed={} for {} incidents, duplicates={}, fired by node {}",
+                    nodes, incidents, timers.values().stream().mapToLong(Long::longValue).sum(), timers.size(),
+                    duplicateTimers, firedByNode);
+            log.info("Cluster nodes={} incidents={}: completed {}", nodes, incidents, completed);
+        }
+    }
+
+    // waits until every incident has left the timer node once, then as long again for the duplicates
+    private void awaitTimers(List<Long> pIds, long timerDelay) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timerDelay + TimeUnit.MINUTES.toMillis(1);
+        long start = System.currentTimeMillis();
+        while (committedTimers(pIds).size() < pIds.size() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        Thread.sleep(System.currentTimeMillis() - start);
+    }
+
+    private Map<Long, Long> committedTimers(List<Long> pIds) {
+        Map<Long, Long> timers = new HashMap<>();
+        EntityManager em = getEmf().createEntityManager();
+        try {
+            for (Object[] row : em.createQuery("select l.processInstanceId, count(l) from NodeInstanceLog l "
+                    + "where l.nodeName = :node and l.type = :type and l.processInstanceId in :pIds group by l.processInstanceId",
+                    Object[].class).setParameter("node", ClusterNode.TIMER_NODE).setParameter("type", NodeInstanceLog.TYPE_EXIT)
+                    .setParameter("pIds", pIds).getResultList()) {
+                timers.put((Long) row[0], (Long) row[1]);
+            }
+        } finally {
+            em.close();
+        }
+        return timers;
+    }
+
+    /**
+     * A forked JVM running a {@link ClusterNode}, its output written to <code>target/cluster/&lt;node&gt;.log</code>.
+     */
+    private static final class Node {
+
+        private final String name;
+
+        private final Process process;
+
+        private final PrintWriter commands;
+
+        private final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+
+        private Node(int index, int nodes, long firstIncident) throws IOException {
+            name = "node" + (index + 1);
+            File directory = new File("target/cluster");
+            Files.createDirectories(directory.toPath());
+            List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            for (String property : System.getProperties().stringPropertyNames()) {
+                if (property.startsWith("benchmark.") || property.startsWith("jbpm.")) {
+                    command.add("-D" + property + "=" + System.getProperty(property));
+                }
+            }
+            command.add("-D" + NODE_NAME_PROPERTY + "=" + name);
+            command.add("-D" + DATABASE_URL_PROPERTY + "=" + databaseUrl);
+            command.add("-D" + ClusterNode.NODE_PROPERTY + "=" + index);
+            command.add("-D" + ClusterNode.NODES_PROPERTY + "=" + nodes);
+            command.add("-D" + ClusterNode.FIRST_INCIDENT_PROPERTY + "=" + firstIncident);
+            // every node recovers its own transactions, as a replica with its own volume
+            command.add("-DObjectStoreEnvironmentBean.objectStoreDir=" + new File(directory, name + "-ObjectStore").getPath());
+            command.add(ClusterNode.class.getName());
+            process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            commands = new PrintWriter(process.getOutputStream(), true);
+
+            Writer output = Files.newBufferedWriter(new File(directory, name + ".log").toPath(), StandardCharsets.UTF_8);
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                        Writer out = output) {
+                    for (String line = in.readLine(); line != null; line = in.readLine()) {
+                        if (line.startsWith(ClusterNode.REPLY)) {
+                            replies.add(line.substring(ClusterNode.REPLY.length()));
+                        } else {
+                            out.write(line);
+                            out.write(System.lineSeparator());
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("Output of cluster node {} lost", name, e);
+                }
+            }, name + "-output");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void send(String phase) {
+            commands.println(phase);
+        }
+
+        private Map<String, String> await(String phase) throws InterruptedException {
+            String reply = replies.poll(1, TimeUnit.SECONDS);
+            while (reply == null && process.isAlive()) {
+                reply = replies.poll(1, TimeUnit.SECONDS);
+            }
+            if (reply == null || !reply.startsWith(phase)) {
+                throw new IllegalStateException("Cluster node " + name + " replied " + reply + " to " + phase
+                        + ", see target/cluster/" + name + ".log");
+            }
+            Map<String, String> values = new HashMap<>();
+            for (String value : reply.substring(phase.length()).trim().split(" ")) {
+                int separator = value.indexOf('=');
+                if (separator > 0) {
+                    values.put(value.substring(0, separator), value.substring(separator + 1));
+                }
+            }
+            return values;
+        }
+    }
+}
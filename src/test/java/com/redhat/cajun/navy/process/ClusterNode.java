@@ -0,0 +1,256 @@
+package com.redhat.cajun.navy.process;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.drools.persistence.jpa.OptimisticLockRetryInterceptor;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessEventListener;
+import org.kie.api.event.process.ProcessNodeLeftEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One replica of the process service in a {@link ClusterBenchmark}, run in its own JVM with its own transaction manager
+ * node name (<code>-Djbpm.nodeName</code>) against the database server of the benchmark
+ * (<code>-Djbpm.databaseUrl</code>).
+ *
+ * The node reads the phases of the benchmark from its standard input, one per line, and answers each one with a line
+ * starting with {@link #REPLY} once it is done. The commands of a phase are spread across the nodes: the incident
+ * <code>i</code> is handled by the node <code>(i + phase) % nodes</code>, so that consecutive signals of an incident
+ * reach different nodes. A fraction of the signals is also redelivered to the next node, as after a rebalance of the
+ * consumers, so that two nodes update the same process instance at the same time.
+ */
+public class ClusterNode extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterNode.class);
+
+    static final String REPLY = "CLUSTER ";
+
+    static final String NODE_PROPERTY = "cluster.node";
+
+    static final String NODES_PROPERTY = "cluster.nodes";
+
+    static final String FIRST_INCIDENT_PROPERTY = "cluster.firstIncident";
+
+    static final String TIMER_NODE = "timer";
+
+    private final AtomicInteger timersFired = new AtomicInteger();
+
+    private final AtomicInteger optimisticLockConflicts = new AtomicInteger();
+
+    public static void main(String[] args) {
+        Result result = new JUnitCore().run(Request.method(ClusterNode.class, "serve"));
+        for (Failure failure : result.getFailures()) {
+            log.error("Cluster node {} failed", nodeName(), failure.getException());
+        }
+        System.exit(result.wasSuccessful() ? 0 : 1);
+    }
+
+    @Test
+    public void serve() throws Exception {
+        int node = Integer.getInteger(NODE_PROPERTY);
+        int nodes = Integer.getInteger(NODES_PROPERTY);
+        long firstIncident = Long.getLong(FIRST_INCIDENT_PROPERTY);
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 100);
+        int redeliveryPercent = BenchmarkSettings.intValue("benchmark.redeliveryPercent", 10);
+        String timerDelay = System.getProperty("benchmark.timerDelay", "PT2S");
+
+        countOptimisticLockConflicts();
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "cluster", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        // the output of the node is also its log, the replies are flushed as whole lines
+        PrintStream out = System.out;
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        out.println(REPLY + "ready");
+        out.flush();
+
+        List<Long> pIds = null;
+        int phase = 0;
+        for (String command = in.readLine(); command != null && !"stop".equals(command); command = in.readLine()) {
+            if ("report".equals(command)) {
+                out.println(REPLY + "report timersFired=" + timersFired.get());
+                out.flush();
+                continue;
+            }
+            PhaseStats stats = new PhaseStats();
+            int conflicts = optimisticLockConflicts.get();
+            long start = System.nanoTime();
+            for (int i = 0; i < incidents; i++) {
+                boolean owner = (i + phase) % nodes == node;
+                boolean redelivered = nodes > 1 && (i + phase + 1) % nodes == node && i % 100 < redeliveryPercent;
+                if ("start".equals(command)) {
+                    if (owner) {
+                        long commandStart = System.nanoTime();
+                        startIncident(data.incident(firstIncident + i), destinations(), timerDelay);
+                        stats.latency.record(System.nanoTime() - commandStart);
+                        stats.commands++;
+                    }
+                    continue;
+                }
+                if (pIds == null) {
+                    pIds = processInstanceIds(getEmf(), data, firstIncident, incidents);
+                }
+                if (owner || redelivered) {
+                    signal(command, pIds.get(i), stats);
+                }
+            }
+            stats.conflicts = optimisticLockConflicts.get() - conflicts;
+            out.println(REPLY + command + " " + stats.format(System.nanoTime() - start));
+            out.flush();
+            phase++;
+        }
+    }
+
+    /**
+     * Counts the timers fired in this node, including the ones whose transaction is rolled back afterwards.
+     */
+    @Override
+    protected List<ProcessEventListener> getProcessEventListeners() {
+        List<ProcessEventListener> listeners = super.getProcessEventListeners();
+        listeners.add(new DefaultProcessEventListener() {
+
+            @Override
+            public void afterNodeLeft(ProcessNodeLeftEvent event) {
+                if (TIMER_NODE.equals(event.getNodeInstance().getNodeName())) {
+                    timersFired.incrementAndGet();
+                }
+            }
+        });
+        return listeners;
+    }
+
+    /**
+     * Counts the commands of the node, signals and timers, which the engine retries after an optimistic lock failure of
+     * their transaction, from the trace log of the retries, which is not written out.
+     */
+    private void countOptimisticLockConflicts() {
+        ch.qos.logback.classic.Logger retries = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(
+                OptimisticLockRetryInterceptor.class);
+        AppenderBase<ILoggingEvent> counter = new AppenderBase<ILoggingEvent>() {
+
+            @Override
+            protected void append(ILoggingEvent event) {
+                if (event.getMessage().startsWith("Command failed due to optimistic locking")) {
+                    optimisticLockConflicts.incrementAndGet();
+                }
+            }
+        };
+        counter.setContext(retries.getLoggerContext());
+        counter.start();
+        retries.addAppender(counter);
+        retries.setAdditive(false);
+        retries.setLevel(Level.TRACE);
+    }
+
+    /**
+     * The process instances of the incidents of the round, in the order of the incidents.
+     */
+    static List<Long> processInstanceIds(EntityManagerFactory emf, IncidentDataGenerator data, long firstIncident, int incidents) {
+        List<String> incidentIds = new ArrayList<>();
+        for (int i = 0; i < incidents; i++) {
+            incidentIds.add(data.incident(firstIncident + i).getId());
+        }
+        Map<String, Long> byIncident = new HashMap<>();
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (Object[] row : em.createQuery("select c.name, c.processInstanceId from CorrelationKeyInfo c where c.name in :names",
+                    Object[].class).setParameter("names", incidentIds).getResultList()) {
+                byIncident.put((String) row[0], (Long) row[1]);
+            }
+        } finally {
+            em.close();
+        }
+        List<Long> pIds = new ArrayList<>();
+        for (String incidentId : incidentIds) {
+            Long pId = byIncident.get(incidentId);
+            if (pId == null) {
+                throw new IllegalStateException("No process instance for incident " + incidentId);
+            }
+            pIds.add(pId);
+        }
+        return pIds;
+    }
+
+    private void signal(String command, long pId, PhaseStats stats) throws InterruptedException {
+        String type = command;
+        Object event = null;
+        if ("ResponderAvailable".equals(command)) {
+            event = Boolean.TRUE;
+        } else if ("ResponderUnavailable".equals(command)) {
+            type = "ResponderAvailable";
+            event = Boolean.FALSE;
+        }
+        int maxRetries = BenchmarkSettings.intValue("benchmark.maxRetries", 10);
+        long start = System.nanoTime();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                signalProcess(mgr, type, event, pId);
+                stats.latency.record(System.nanoTime() - start);
+                stats.commands++;
+                return;
+            } catch (RuntimeException e) {
+                if (isSessionNotFound(e)) {
+                    // a redelivered signal of an incident completed by the other node
+                    stats.rejected++;
+                    return;
+                }
+                if (isLockTimeout(e)) {
+                    stats.lockTimeouts++;
+                } else if (!isOptimisticLockFailure(e)) {
+                    log.warn("Signal {} to process instance {} failed", type, pId, e);
+                    stats.failed++;
+                    return;
+                }
+                // the engine has given up retrying, the signal is redelivered
+                if (attempt == maxRetries) {
+                    stats.failed++;
+                    return;
+                }
+                stats.retries++;
+                Thread.sleep(ThreadLocalRandom.current().nextInt(1 << Math.min(attempt, 6)));
+            }
+        }
+    }
+
+    private static final class PhaseStats {
+
+        private final LatencyStats latency = new LatencyStats();
+
+        private int commands;
+
+        private int conflicts;
+
+        private int retries;
+
+        private int lockTimeouts;
+
+        private int rejected;
+
+        private int failed;
+
+        private String format(long elapsed) {
+            return "commands=" + commands + " conflicts=" + conflicts + " retries=" + retries + " lockTimeouts=" + lockTimeouts
+                    + " rejected=" + rejected + " failed=" + failed + " elapsed=" + elapsed + " p50=" + latency.percentile(50)
+                    + " p99=" + latency.percentile(99);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+
+/**
+ * Stub work item handler which completes the work item synchronously with the results computed by a function.
+ */
+public class CompletingWorkItemHandler implements WorkItemHandler {
+
+    private final Function<WorkItem, Map<String, Object>> results;
+
+    public CompletingWorkItemHandler(Function<WorkItem, Map<String, Object>> results) {
+        this.results = results;
+    }
+
+    @Override
+    public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+        manager.completeWorkItem(workItem.getId(), results.apply(workItem));
+    }
+
+    @Override
+    public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import org.drools.core.command.runtime.process.SignalEventCommand;
+import org.junit.After;
+import org.junit.Test;
+import org.kie.api.runtime.EnvironmentName;
+import org.kie.api.runtime.manager.RuntimeEngine;
+import org.kie.api.runtime.manager.RuntimeEnvironmentBuilder;
+import org.kie.api.runtime.manager.audit.NodeInstanceLog;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.internal.runtime.manager.SessionNotFoundException;
+import org.kie.internal.runtime.manager.context.ProcessInstanceIdContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Races MissionAborted against MissionStarted and against VictimPickedUp on the same incident, as production can deliver
+ * them at the same moment.
+ *
+ * Signals failing with an optimistic lock exception are retried. After every race the end state must match the
+ * sequential semantics of the testIncidentProcessMissionAbortedBefore* tests, whatever the order in which the signals
+ * were applied: the incident is completed and aborted, and is never delivered.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=ConcurrentSignalStressBenchmark</code>. Set
+ * <code>-Dbenchmark.pessimisticLocking=true</code> to compare with pessimistic locking of the process instances.
+ */
+public class ConcurrentSignalStressBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentSignalStressBenchmark.class);
+
+    private final Map<String, AtomicInteger> updateIncidentMessages = new ConcurrentHashMap<>();
+
+    private final AtomicInteger optimisticLockFailures = new AtomicInteger();
+
+    private final AtomicInteger retries = new AtomicInteger();
+
+    private final AtomicInteger rejectedSignals = new AtomicInteger();
+
+    private final LatencyStats lockWait = new LatencyStats();
+
+    private final LatencyStats signalLatency = new LatencyStats();
+
+    private ExecutorService executor;
+
+    @After
+    public void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void missionAbortedRacingMissionStarted() throws Exception {
+        race("MissionStarted", false);
+    }
+
+    @Test
+    public void missionAbortedRacingVictimPickedUp() throws Exception {
+        race("VictimPickedUp", true);
+    }
+
+    @Override
+    protected void configureEnvironment(RuntimeEnvironmentBuilder builder) {
+        if (Boolean.getBoolean("benchmark.pessimisticLocking")) {
+            builder.addEnvironmentEntry(EnvironmentName.USE_PESSIMISTIC_LOCKING, true);
+        }
+    }
+
+    @Override
+    protected void sendMessage(WorkItem workItem) {
+        if ("UpdateIncident".equals(workItem.getParameter("MessageType"))) {
+            String incidentId = ((Incident) workItem.getParameter("Payload")).getId();
+            updateIncidentMessages.computeIfAbsent(incidentId, k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private void race(String competingSignal, boolean missionStarted) throws Exception {
+        int races = BenchmarkSettings.intValue("benchmark.races", 100);
+        int maxRetries = BenchmarkSettings.intValue("benchmark.maxRetries", 10);
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "signal-race", stubWorkItemHandlers(), INCIDENT_PROCESS);
+        executor = Executors.newFixedThreadPool(2);
+
+        int duplicateMessages = 0;
+        long elapsed = 0;
+        for (int i = 0; i < races; i++) {
+            String incidentId = UUID.randomUUID().toString();
+            long pId = startIncident(incident(incidentId), destinations(), "PT60S");
+            signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+            if (missionStarted) {
+                signalProcess(mgr, "MissionStarted", null, pId);
+            }
+
+            CountDownLatch gate = new CountDownLatch(1);
+            List<Future<?>> signals = new ArrayList<>();
+            signals.add(executor.submit(() -> signalWithRetry(gate, competingSignal, pId, maxRetries)));
+            signals.add(executor.submit(() -> signalWithRetry(gate, "MissionAborted", pId, maxRetries)));
+            long start = System.nanoTime();
+            gate.countDown();
+            for (Future<?> signal : signals) {
+                signal.get(1, TimeUnit.MINUTES);
+            }
+            elapsed += System.nanoTime() - start;
+
+            assertProcessInstanceCompleted(pId);
+            assertNodeTriggered(pId, "Mission Aborted", "Update Incident Aborted");
+            assertNodeNotTriggered(pId, "Update Incident Delivered");
+            // messages sent from transactions which were rolled back afterwards
+            duplicateMessages += updateIncidentMessages.get(incidentId).get() - committedUpdateIncidents(pId);
+        }
+
+        log.info("MissionAborted racing {}: races={} throughput={}/s optimistic lock failures={} retries={} rejected late signals={} "
+                        + "duplicate UpdateIncident messages={}", competingSignal, races,
+                String.format("%.1f", races * 1e9 / elapsed), optimisticLockFailures, retries, rejectedSignals, duplicateMessages);
+        log.info("MissionAborted racing {}: signal {}", competingSignal, signalLatency);
+        log.info("MissionAborted racing {}: lock wait {}", competingSignal, lockWait);
+    }
+
+    private Void signalWithRetry(CountDownLatch gate, String type, long pId, int maxRetries) throws InterruptedException {
+        gate.await();
+        long start = System.nanoTime();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                // same as signalProcess(mgr, type, null, pId), with the time spent waiting for the engine lock measured apart
+                long acquireStart = System.nanoTime();
+                RuntimeEngine runtimeEngine = getRuntimeEngine(ProcessInstanceIdContext.get(pId));
+                lockWait.record(System.nanoTime() - acquireStart);
+                signalProcess(mgr, runtimeEngine, new SignalEventCommand(pId, type, null));
+                signalLatency.record(System.nanoTime() - start);
+                return null;
+            } catch (SessionNotFoundException e) {
+                // the other signal completed the process instance first
+                rejectedSignals.incrementAndGet();
+                return null;
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                optimisticLockFailures.incrementAndGet();
+                if (attempt == maxRetries) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                Thread.sleep(ThreadLocalRandom.current().nextInt(1 << Math.min(attempt, 6)));
+            }
+        }
+    }
+
+    private int committedUpdateIncidents(long pId) {
+        int committed = 0;
+        for (NodeInstanceLog l : getLogService().findNodeInstances(pId)) {
+            if (l.getType() == NodeInstanceLog.TYPE_ENTER && l.getNodeName() != null && l.getNodeName().startsWith("Update Incident")) {
+                committed++;
+            }
+        }
+        return committed;
+    }
+}
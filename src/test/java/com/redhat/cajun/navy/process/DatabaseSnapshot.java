@@ -0,0 +1,191 @@
+package com.redhat.cajun.navy.process;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copy in memory of the rows of every table of an H2 database, taken after a step of a scenario and restored by the
+ * tests and benchmarks which start from that step, instead of replaying the commands which lead to it.
+ *
+ * With the per process instance strategy the whole engine state is in the database: process instances, sessions, work
+ * items, correlation keys and audit logs. The timers of the engine are not: they are not restored, so the snapshots are
+ * meant for steps without pending timers, or with timers which do not fire during the test.
+ *
+ * The sequences are moved forward to their value in the snapshot, never back, so that new ids do not collide with the
+ * restored rows, whatever the ids the persistence unit has already reserved.
+ *
+ * A restore rewrites every table, its cost grows with the rows of the snapshot and of the database: a snapshot of a
+ * small database restores in about a millisecond, far less than the commands it replaces.
+ */
+public class DatabaseSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseSnapshot.class);
+
+    private final Map<String, Table> tables;
+
+    private final Map<String, Long> sequences;
+
+    private final Map<String, Object> state;
+
+    private static final class Table {
+
+        private final List<String> columns = new ArrayList<>();
+
+        private final List<Object[]> rows = new ArrayList<>();
+    }
+
+    private DatabaseSnapshot(Map<String, Table> tables, Map<String, Long> sequences, Map<String, Object> state) {
+        this.tables = tables;
+        this.sequences = sequences;
+        this.state = state;
+    }
+
+    /**
+     * Copies the rows of every table, with the given test state (ids, recorded parameters, ...), which is returned as is
+     * by {@link #restore(DataSource)}.
+     */
+    public static DatabaseSnapshot capture(DataSource dataSource, Map<String, Object> state) {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            Map<String, Table> tables = new LinkedHashMap<>();
+            for (String name : tableNames(statement)) {
+                Table table = new Table();
+                try (ResultSet rs = statement.executeQuery("SELECT * FROM " + quote(name))) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        table.columns.add(metaData.getColumnName(i));
+                    }
+                    while (rs.next()) {
+                        Object[] row = new Object[table.columns.size()];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = materialize(rs.getObject(i + 1));
+                        }
+                        table.rows.add(row);
+                    }
+                }
+                tables.put(name, table);
+            }
+            Map<String, Long> sequences = new HashMap<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT SEQUENCE_NAME, CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC'")) {
+                while (rs.next()) {
+                    sequences.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+            DatabaseSnapshot snapshot = new DatabaseSnapshot(tables, sequences, new HashMap<>(state));
+            log.debug("Captured {} rows in {} us", snapshot.rows(), (System.nanoTime() - start) / 1000);
+            return snapshot;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to capture database snapshot", e);
+        }
+    }
+
+    /**
+     * Replaces the rows of every table with the ones of the snapshot, and returns the test state of the snapshot.
+     */
+    public Map<String, Object> restore(DataSource dataSource) {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            // a single commit for the whole restore
+            connection.setAutoCommit(false);
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                for (String name : tableNames(statement)) {
+                    statement.executeUpdate("DELETE FROM " + quote(name));
+                    Table table = tables.get(name);
+                    if (table == null || table.rows.isEmpty()) {
+                        continue;
+                    }
+                    StringBuilder insert = new StringBuilder("INSERT INTO ").append(quote(name)).append(" (");
+                    StringBuilder values = new StringBuilder(") VALUES (");
+                    for (int i = 0; i < table.columns.size(); i++) {
+                        insert.append(i == 0 ? "" : ", ").append(quote(table.columns.get(i)));
+                        values.append(i == 0 ? "?" : ", ?");
+                    }
+                    try (PreparedStatement ps = connection.prepareStatement(insert.append(values).append(")").toString())) {
+                        for (Object[] row : table.rows) {
+                            for (int i = 0; i < row.length; i++) {
+                                ps.setObject(i + 1, row[i]);
+                            }
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+            } finally {
+                statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT SEQUENCE_NAME, CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC'")) {
+                List<String> restarts = new ArrayList<>();
+                while (rs.next()) {
+                    Long value = sequences.get(rs.getString(1));
+                    if (value != null && value > rs.getLong(2)) {
+                        restarts.add("ALTER SEQUENCE " + quote(rs.getString(1)) + " RESTART WITH " + (value + 1));
+                    }
+                }
+                for (String restart : restarts) {
+                    statement.execute(restart);
+                }
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            log.debug("Restored {} rows in {} us", rows(), (System.nanoTime() - start) / 1000);
+            return Collections.unmodifiableMap(state);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to restore database snapshot", e);
+        }
+    }
+
+    public int rows() {
+        int rows = 0;
+        for (Table table : tables.values()) {
+            rows += table.rows.size();
+        }
+        return rows;
+    }
+
+    private static List<String> tableNames(Statement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'TABLE'")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    // LOBs are only readable while their result set is open
+    private static Object materialize(Object value) throws SQLException {
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            return blob.getBytes(1, (int) blob.length());
+        }
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            return clob.getSubString(1, (int) clob.length());
+        }
+        return value;
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier + '"';
+    }
+}
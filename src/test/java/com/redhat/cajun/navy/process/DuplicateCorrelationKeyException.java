@@ -0,0 +1,20 @@
+package com.redhat.cajun.navy.process;
+
+/**
+ * Thrown by a correlated start when a process instance with the same correlation key is active already.
+ */
+public class DuplicateCorrelationKeyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String correlationKey;
+
+    public DuplicateCorrelationKeyException(String correlationKey) {
+        super("A process instance with correlation key " + correlationKey + " is active already");
+        this.correlationKey = correlationKey;
+    }
+
+    public String getCorrelationKey() {
+        return correlationKey;
+    }
+}
@@ -0,0 +1,149 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts incidents from several threads with every incident event redelivered in a burst, as Kafka does after a consumer
+ * rebalance, and compares the rejection of the duplicates by the {@link ActiveCorrelationKeyFilter} with their rejection
+ * by the engine, which looks the correlation key up in the start transaction.
+ *
+ * Without a unique constraint on the correlation key table (<code>hbm2ddl</code> does not create the one of the jBPM DDL
+ * scripts), concurrent copies of the same event can all pass the engine check: they are reported as duplicate process
+ * instances.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=DuplicateStartBenchmark -Dbenchmark.duplicates=5 -Dbenchmark.threads=8</code>.
+ */
+public class DuplicateStartBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateStartBenchmark.class);
+
+    private final Map<String, AtomicInteger> started = new ConcurrentHashMap<>();
+
+    private final AtomicInteger rejectedByFilter = new AtomicInteger();
+
+    private final AtomicInteger rejectedByDatabase = new AtomicInteger();
+
+    private final LatencyStats startLatency = new LatencyStats();
+
+    private final LatencyStats rejectionLatency = new LatencyStats();
+
+    private ExecutorService executor;
+
+    public DuplicateStartBenchmark() {
+        correlationKeyFilter = new ActiveCorrelationKeyFilter();
+    }
+
+    @After
+    public void shutdownExecutor() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    public void duplicatesRejectedByFilter() throws Exception {
+        duplicateStarts("filter");
+    }
+
+    @Test
+    public void duplicatesRejectedByDatabase() throws Exception {
+        correlationKeyFilter = null;
+        duplicateStarts("database");
+    }
+
+    private void duplicateStarts(String mode) throws Exception {
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 200);
+        int duplicates = BenchmarkSettings.intValue("benchmark.duplicates", 4);
+        int threads = BenchmarkSettings.intValue("benchmark.threads", 4);
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "duplicate-start", stubWorkItemHandlers(), INCIDENT_PROCESS);
+        executor = Executors.newFixedThreadPool(threads);
+
+        // every incident event followed by its redeliveries, so that the copies are picked up by different threads at once
+        List<String> deliveries = new ArrayList<>();
+        for (int i = 0; i < incidents; i++) {
+            String incidentId = UUID.randomUUID().toString();
+            for (int d = 0; d <= duplicates; d++) {
+                deliveries.add(incidentId);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>();
+        for (String incidentId : deliveries) {
+            results.add(executor.submit(() -> deliver(incidentId)));
+        }
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int duplicateInstances = 0;
+        for (AtomicInteger starts : started.values()) {
+            duplicateInstances += starts.get() - 1;
+        }
+        log.info("Duplicate starts ({}): incidents={} deliveries={} threads={} throughput={} deliveries/s started={} "
+                        + "rejected by filter={} rejected by database={} duplicate process instances={}", mode, incidents,
+                deliveries.size(), threads, String.format("%.1f", deliveries.size() * 1e9 / elapsed), started.size(),
+                rejectedByFilter, rejectedByDatabase, duplicateInstances);
+        log.info("Duplicate starts ({}): start {}", mode, startLatency);
+        log.info("Duplicate starts ({}): rejection {}", mode, rejectionLatency);
+
+        assertThat(started.size(), equalTo(incidents));
+        if (correlationKeyFilter != null) {
+            assertThat(duplicateInstances, equalTo(0));
+        }
+    }
+
+    private void deliver(String incidentId) {
+        long start = System.nanoTime();
+        try {
+            startIncident(incident(incidentId), destinations(), "PT60S");
+            startLatency.record(System.nanoTime() - start);
+            started.computeIfAbsent(incidentId, k -> new AtomicInteger()).incrementAndGet();
+        } catch (DuplicateCorrelationKeyException e) {
+            rejectionLatency.record(System.nanoTime() - start);
+            rejectedByFilter.incrementAndGet();
+        } catch (RuntimeException e) {
+            if (!isDuplicateCorrelationKey(e)) {
+                throw e;
+            }
+            rejectionLatency.record(System.nanoTime() - start);
+            rejectedByDatabase.incrementAndGet();
+        }
+    }
+
+    private static boolean isDuplicateCorrelationKey(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            // found by the engine when loading the correlation key, or by the unique constraint when two starts race
+            if (t.getMessage() != null && t.getMessage().startsWith("CorrelationKey") && t.getMessage().endsWith("already exists")) {
+                return true;
+            }
+            // SQL state class 23: integrity constraint violation
+            if (t instanceof SQLException && ((SQLException) t).getSQLState() != null
+                    && ((SQLException) t).getSQLState().startsWith("23")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,323 @@
+package com.redhat.cajun.navy.process;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Status;
+
+/**
+ * Discrete-event model of a disaster day, used to drive incident processes with a realistic and repeatable load.
+ *
+ * The incidents, boats and destinations come from an {@link IncidentDataGenerator}, and the incidents are reported at
+ * random (Poisson arrivals). Each incident gets the boat which can reach it first, which leaves from where its previous
+ * mission ended, picks the victims up and brings them to the nearest destination, at a constant speed. Every incident
+ * is planned when it is reported: its mission, as the BusinessRuleTask would return it, and the timeline of its signals
+ * in simulated time (ResponderAvailable, MissionStarted, VictimPickedUp, VictimDelivered), or a MissionAborted at a
+ * random moment of the mission for a fraction of them.
+ *
+ * The events of all the incidents are returned in simulated time order by {@link #nextEvent()}. The simulation does not
+ * depend on the engine, so the same seed always produces the same day.
+ */
+public class FleetSimulation {
+
+    public static final String START = "Start";
+
+    /** Seconds between the report of an incident and the ResponderAvailable signal. */
+    static final long ACCEPT_DELAY = 10;
+
+    /** Seconds between the ResponderAvailable signal and the departure of an idle boat. */
+    static final long DISPATCH_DELAY = 60;
+
+    /** Seconds spent on site to pick the victims up. */
+    static final long LOADING_TIME = 300;
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    /**
+     * An engine command at a moment of the simulated day: the start of the process instance of an incident, or a signal.
+     */
+    public static final class Event implements Comparable<Event> {
+
+        private final long time;
+
+        private final long sequence;
+
+        private final PlannedIncident incident;
+
+        private final String type;
+
+        private final Object payload;
+
+        private Event(long time, long sequence, PlannedIncident incident, String type, Object payload) {
+            this.time = time;
+            this.sequence = sequence;
+            this.incident = incident;
+            this.type = type;
+            this.payload = payload;
+        }
+
+        /** Simulated time, in seconds since the start of the day. */
+        public long getTime() {
+            return time;
+        }
+
+        public PlannedIncident getIncident() {
+            return incident;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Object getPayload() {
+            return payload;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int result = Long.compare(time, other.time);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public static final class PlannedIncident {
+
+        private final int index;
+
+        private final Incident incident;
+
+        private final Mission mission;
+
+        private final long reportedAt;
+
+        private final long departedAt;
+
+        private final long closedAt;
+
+        private final boolean aborted;
+
+        private PlannedIncident(int index, Incident incident, Mission mission, long reportedAt, long departedAt,
+                long closedAt, boolean aborted) {
+            this.index = index;
+            this.incident = incident;
+            this.mission = mission;
+            this.reportedAt = reportedAt;
+            this.departedAt = departedAt;
+            this.closedAt = closedAt;
+            this.aborted = aborted;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Incident getIncident() {
+            return incident;
+        }
+
+        /** The mission the BusinessRuleTask assigns to the incident. */
+        public Mission getMission() {
+            return mission;
+        }
+
+        public long getReportedAt() {
+            return reportedAt;
+        }
+
+        /** When the boat leaves for the incident: the time waiting for a free boat ends. */
+        public long getDepartedAt() {
+            return departedAt;
+        }
+
+        /** When the victims are delivered, or the mission aborted. */
+        public long getClosedAt() {
+            return closedAt;
+        }
+
+        public boolean isAborted() {
+            return aborted;
+        }
+    }
+
+    private static final class Boat {
+
+        private final String id;
+
+        private double lat;
+
+        private double lon;
+
+        private long freeAt;
+
+        private Boat(String id, double lat, double lon) {
+            this.id = id;
+            this.lat = lat;
+            this.lon = lon;
+        }
+    }
+
+    private final Random random;
+
+    private final IncidentDataGenerator data;
+
+    private final double speedKmh;
+
+    private final double abortRate;
+
+    private final List<Boat> boats = new ArrayList<>();
+
+    private final double[][] destinations;
+
+    private final List<PlannedIncident> incidents = new ArrayList<>();
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+
+    private long sequence;
+
+    public FleetSimulation(long seed, int responders, int destinations, double speedKmh, double abortRate) {
+        this.random = new Random(seed);
+        this.data = new IncidentDataGenerator(seed);
+        this.speedKmh = speedKmh;
+        this.abortRate = abortRate;
+        for (int i = 0; i < responders; i++) {
+            Responder responder = data.responder(i);
+            boats.add(new Boat(responder.getId(), responder.getLatitude().doubleValue(), responder.getLongitude().doubleValue()));
+        }
+        this.destinations = new double[destinations][];
+        for (int i = 0; i < destinations; i++) {
+            Destination destination = data.destination(i);
+            this.destinations[i] = new double[] {destination.getLatitude().doubleValue(), destination.getLongitude().doubleValue()};
+        }
+    }
+
+    /**
+     * Plans the given number of incidents, reported at random over the given number of simulated seconds.
+     */
+    public List<PlannedIncident> plan(int count, long duration) {
+        double meanInterval = (double) duration / count;
+        double time = 0;
+        for (int i = 0; i < count; i++) {
+            time += -Math.log(1 - random.nextDouble()) * meanInterval;
+            incidents.add(planIncident(incidents.size(), (long) time));
+        }
+        return Collections.unmodifiableList(incidents);
+    }
+
+    /**
+     * The next event in simulated time, or null when the day is over.
+     */
+    public Event nextEvent() {
+        return events.poll();
+    }
+
+    public int pendingEvents() {
+        return events.size();
+    }
+
+    /**
+     * The highest number of incidents reported and not closed yet at the same moment of the day.
+     */
+    public int peakConcurrentIncidents() {
+        List<long[]> changes = new ArrayList<>();
+        for (PlannedIncident incident : incidents) {
+            changes.add(new long[] {incident.reportedAt, 1});
+            changes.add(new long[] {incident.closedAt, -1});
+        }
+        changes.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        int concurrent = 0;
+        int peak = 0;
+        for (long[] change : changes) {
+            concurrent += change[1];
+            peak = Math.max(peak, concurrent);
+        }
+        return peak;
+    }
+
+    private PlannedIncident planIncident(int index, long reportedAt) {
+        Incident incident = data.incident(index);
+        double lat = incident.getLat().doubleValue();
+        double lon = incident.getLon().doubleValue();
+
+        long acceptedAt = reportedAt + ACCEPT_DELAY;
+        Boat boat = null;
+        long pickedUpAt = Long.MAX_VALUE;
+        for (Boat candidate : boats) {
+            long arrival = Math.max(candidate.freeAt, acceptedAt + DISPATCH_DELAY)
+                    + travelTime(candidate.lat, candidate.lon, lat, lon) + LOADING_TIME;
+            if (arrival < pickedUpAt) {
+                boat = candidate;
+                pickedUpAt = arrival;
+            }
+        }
+        double[] destination = destinations[0];
+        for (double[] candidate : destinations) {
+            if (distance(lat, lon, candidate[0], candidate[1]) < distance(lat, lon, destination[0], destination[1])) {
+                destination = candidate;
+            }
+        }
+        long departedAt = Math.max(boat.freeAt, acceptedAt + DISPATCH_DELAY);
+        long deliveredAt = pickedUpAt + travelTime(lat, lon, destination[0], destination[1]);
+
+        Mission mission = new Mission();
+        mission.setIncidentId(incident.getId());
+        mission.setResponderId(boat.id);
+        mission.setStatus(Status.ASSIGNED);
+        mission.setResponderStartLat(coordinate(boat.lat));
+        mission.setResponderStartLong(coordinate(boat.lon));
+        mission.setDestinationLat(coordinate(destination[0]));
+        mission.setDestinationLong(coordinate(destination[1]));
+
+        boolean aborted = random.nextDouble() < abortRate;
+        long closedAt = aborted ? acceptedAt + 1 + (long) (random.nextDouble() * (deliveredAt - acceptedAt - 1)) : deliveredAt;
+        PlannedIncident planned = new PlannedIncident(index, incident, mission, reportedAt, departedAt, closedAt, aborted);
+
+        schedule(reportedAt, planned, START, null);
+        schedule(acceptedAt, planned, "ResponderAvailable", Boolean.TRUE);
+        schedule(departedAt, planned, "MissionStarted", null);
+        schedule(pickedUpAt, planned, "VictimPickedUp", null);
+        schedule(deliveredAt, planned, "VictimDelivered", null);
+        if (aborted) {
+            // the boat goes back into service from the last place it reached
+            if (closedAt >= pickedUpAt) {
+                boat.lat = lat;
+                boat.lon = lon;
+            }
+            schedule(closedAt, planned, "MissionAborted", null);
+        } else {
+            boat.lat = destination[0];
+            boat.lon = destination[1];
+        }
+        boat.freeAt = Math.max(boat.freeAt, closedAt);
+        return planned;
+    }
+
+    private void schedule(long time, PlannedIncident incident, String type, Object payload) {
+        if (time <= incident.closedAt) {
+            events.add(new Event(time, sequence++, incident, type, payload));
+        }
+    }
+
+    private long travelTime(double fromLat, double fromLon, double toLat, double toLon) {
+        return (long) (distance(fromLat, fromLon, toLat, toLon) / speedKmh * 3600);
+    }
+
+    private static double distance(double fromLat, double fromLon, double toLat, double toLon) {
+        double dLat = Math.toRadians(toLat - fromLat);
+        double dLon = Math.toRadians(toLon - fromLon);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(fromLat)) * Math.cos(Math.toRadians(toLat))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private static BigDecimal coordinate(double value) {
+        return IncidentDataGenerator.coordinate(value);
+    }
+}
@@ -0,0 +1,123 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.junit.Test;
+import org.kie.api.runtime.process.WorkItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays a simulated disaster day ({@link FleetSimulation}) against the incident process: every incident is started when
+ * it is reported, gets the mission planned by the simulation from the BusinessRuleTask, and is signaled at each step of
+ * the mission, as fast as the engine allows. The signals go through a {@link SignalDispatcher}, so that the incidents
+ * progress in parallel and the steps of an incident in order.
+ *
+ * Reports the distribution of the incident times (report to delivery or abort) and of the waits for a free boat in
+ * simulated minutes, and the engine throughput.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=FleetSimulationBenchmark -Dbenchmark.incidents=10000 -Dbenchmark.responders=200</code>.
+ */
+public class FleetSimulationBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetSimulationBenchmark.class);
+
+    private final Map<String, Mission> missions = new ConcurrentHashMap<>();
+
+    private final LatencyStats engineLatency = new LatencyStats();
+
+    private Responders fleet;
+
+    @Test
+    public void disasterDay() throws Exception {
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 5000);
+        int responders = BenchmarkSettings.intValue("benchmark.responders", 100);
+        int hours = BenchmarkSettings.intValue("benchmark.simulatedHours", 12);
+        int lanes = BenchmarkSettings.intValue("benchmark.lanes", Runtime.getRuntime().availableProcessors());
+        double speedKmh = Double.parseDouble(System.getProperty("benchmark.speedKmh", "20"));
+        double abortRate = Double.parseDouble(System.getProperty("benchmark.abortRate", "0.05"));
+        long seed = Long.getLong("benchmark.seed", 42);
+
+        // the same generated responders and destinations as the simulation
+        fleet = data.responders(responders);
+        FleetSimulation simulation = new FleetSimulation(seed, responders, destinations().getDestinations().size(), speedKmh, abortRate);
+        List<FleetSimulation.PlannedIncident> planned = simulation.plan(incidents, TimeUnit.HOURS.toSeconds(hours));
+        for (FleetSimulation.PlannedIncident incident : planned) {
+            missions.put(incident.getIncident().getId(), incident.getMission());
+        }
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "fleet-simulation", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        // the process instance ids, written and read on the lane of the incident only
+        long[] pIds = new long[incidents];
+        AtomicInteger commands = new AtomicInteger();
+        long start = System.nanoTime();
+        try (SignalDispatcher dispatcher = new SignalDispatcher(lanes, (index, type, event) -> {
+            long commandStart = System.nanoTime();
+            if (FleetSimulation.START.equals(type)) {
+                pIds[(int) index] = startIncident((Incident) event, destinations(), "PT60S");
+            } else {
+                signalProcess(mgr, type, event, pIds[(int) index]);
+            }
+            engineLatency.record(System.nanoTime() - commandStart);
+            commands.incrementAndGet();
+        })) {
+            for (FleetSimulation.Event event; (event = simulation.nextEvent()) != null; ) {
+                FleetSimulation.PlannedIncident incident = event.getIncident();
+                Object payload = FleetSimulation.START.equals(event.getType()) ? incident.getIncident() : event.getPayload();
+                dispatcher.dispatch(incident.getIndex(), event.getType(), payload);
+            }
+            dispatcher.awaitQuiescence(1, TimeUnit.HOURS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        LatencyStats incidentTimes = new LatencyStats();
+        LatencyStats waits = new LatencyStats();
+        int aborted = 0;
+        for (FleetSimulation.PlannedIncident incident : planned) {
+            incidentTimes.record(incident.getClosedAt() - incident.getReportedAt());
+            waits.record(Math.max(0, Math.min(incident.getDepartedAt(), incident.getClosedAt()) - incident.getReportedAt()));
+            if (incident.isAborted()) {
+                aborted++;
+            }
+        }
+        log.info("Fleet simulation: incidents={} aborted={} responders={} simulated={}h peak concurrent incidents={} lanes={}",
+                incidents, aborted, responders, hours, simulation.peakConcurrentIncidents(), lanes);
+        log.info("Fleet simulation: incident time {}", minutes(incidentTimes));
+        log.info("Fleet simulation: wait for a boat {}", minutes(waits));
+        log.info("Fleet simulation: engine commands={} in {} s, throughput={} commands/s, simulated day replayed {}x faster than real time",
+                commands, String.format("%.1f", elapsed / 1e9), String.format("%.1f", commands.get() * 1e9 / elapsed),
+                String.format("%.0f", TimeUnit.HOURS.toNanos(hours) / (double) elapsed));
+        log.info("Fleet simulation: engine command {}", engineLatency);
+
+        for (long pId : pIds) {
+            assertProcessInstanceCompleted(pId);
+        }
+    }
+
+    @Override
+    protected Object responders(WorkItem workItem) {
+        return fleet;
+    }
+
+    @Override
+    protected Mission mission(WorkItem workItem) {
+        return missions.get(((Incident) workItem.getParameter("Incident")).getId());
+    }
+
+    /**
+     * Summary of durations recorded in simulated seconds.
+     */
+    private static String minutes(LatencyStats seconds) {
+        return String.format("n=%d mean=%.1fmin p50=%.1fmin p90=%.1fmin p99=%.1fmin max=%.1fmin", seconds.count(),
+                seconds.mean() / 60, seconds.percentile(50) / 60.0, seconds.percentile(90) / 60.0,
+                seconds.percentile(99) / 60.0, seconds.percentile(100) / 60.0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import jdk.jfr.Event;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessNodeLeftEvent;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.runtime.process.NodeInstance;
+
+/**
+ * Emits the {@link ProcessFlightRecorder} node enter and exit events.
+ */
+public class FlightRecorderProcessEventListener extends DefaultProcessEventListener {
+
+    // the before and after callbacks of a node are nested on the calling thread
+    private static final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeNodeTriggered(ProcessNodeTriggeredEvent event) {
+        ProcessFlightRecorderEvents.NodeEnter nodeEnter = new ProcessFlightRecorderEvents.NodeEnter();
+        nodeEnter.processInstanceId = event.getProcessInstance().getId();
+        nodeEnter.nodeName = event.getNodeInstance().getNodeName();
+        push(event.getNodeInstance(), nodeEnter);
+    }
+
+    @Override
+    public void afterNodeTriggered(ProcessNodeTriggeredEvent event) {
+        pop(event.getNodeInstance());
+    }
+
+    @Override
+    public void beforeNodeLeft(ProcessNodeLeftEvent event) {
+        ProcessFlightRecorderEvents.NodeExit nodeExit = new ProcessFlightRecorderEvents.NodeExit();
+        nodeExit.processInstanceId = event.getProcessInstance().getId();
+        nodeExit.nodeName = event.getNodeInstance().getNodeName();
+        push(event.getNodeInstance(), nodeExit);
+    }
+
+    @Override
+    public void afterNodeLeft(ProcessNodeLeftEvent event) {
+        pop(event.getNodeInstance());
+    }
+
+    /**
+     * The name of the innermost node being triggered or left on the calling thread, null outside of a node.
+     */
+    static String currentNodeName() {
+        Frame frame = frames.get().peek();
+        return frame == null ? null : frame.nodeInstance.getNodeName();
+    }
+
+    private static void push(NodeInstance nodeInstance, Event event) {
+        event.begin();
+        frames.get().push(new Frame(nodeInstance, event));
+    }
+
+    private static void pop(NodeInstance nodeInstance) {
+        Deque<Frame> stack = frames.get();
+        // frames left behind by a transaction which failed half way are dropped
+        while (!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            if (frame.nodeInstance == nodeInstance) {
+                frame.event.commit();
+                return;
+            }
+        }
+    }
+
+    private static class Frame {
+
+        private final NodeInstance nodeInstance;
+
+        private final Event event;
+
+        private Frame(NodeInstance nodeInstance, Event event) {
+            this.nodeInstance = nodeInstance;
+            this.event = event;
+        }
+    }
+}
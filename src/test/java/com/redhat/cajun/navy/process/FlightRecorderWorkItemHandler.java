@@ -0,0 +1,37 @@
+package com.redhat.cajun.navy.process;
+
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+
+/**
+ * Decorates a work item handler with the {@link ProcessFlightRecorder} work item execution event. The node name is the one
+ * of the node being triggered, from the {@link FlightRecorderProcessEventListener}.
+ */
+public class FlightRecorderWorkItemHandler implements WorkItemHandler {
+
+    private final WorkItemHandler delegate;
+
+    public FlightRecorderWorkItemHandler(WorkItemHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+        ProcessFlightRecorderEvents.WorkItemExecution event = new ProcessFlightRecorderEvents.WorkItemExecution();
+        event.begin();
+        try {
+            delegate.executeWorkItem(workItem, manager);
+        } finally {
+            event.processInstanceId = workItem.getProcessInstanceId();
+            event.nodeName = FlightRecorderProcessEventListener.currentNodeName();
+            event.workItemName = workItem.getName();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
+        delegate.abortWorkItem(workItem, manager);
+    }
+}
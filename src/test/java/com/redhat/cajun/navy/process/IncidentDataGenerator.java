@@ -0,0 +1,194 @@
+package com.redhat.cajun.navy.process;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.redhat.cajun.navy.rules.model.Destination;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+
+/**
+ * Seeded generator of realistic model objects for tests and benchmarks, in the area of the demo: incidents clustered
+ * around a few flooded neighbourhoods with victims and phone numbers, responders spread over the whole area with boats of
+ * various capacities, and the destinations of the demo followed by generated shelters.
+ *
+ * Every object only depends on the seed and on its index, so that the n-th responder is the same whether it is generated
+ * alone, in a list, or in a (parallel) stream, and large fleets or incident feeds can be streamed lazily without being
+ * held in memory.
+ */
+public class IncidentDataGenerator {
+
+    static final double MIN_LAT = 34.16;
+    static final double MAX_LAT = 34.26;
+    static final double MIN_LON = -77.95;
+    static final double MAX_LON = -77.85;
+
+    /** Morning of the 14th of September 2018, when Florence made landfall near Wilmington. */
+    static final long FIRST_REPORT = 1536908400000L;
+
+    private static final long REPORTING_PERIOD = 12 * 3600 * 1000L;
+
+    /** Fraction of the incidents reported in the flooded neighbourhoods, the others anywhere in the area. */
+    private static final double HOTSPOT_SHARE = 0.7;
+
+    /** Spread of the incidents around a hotspot, in degrees. */
+    private static final double HOTSPOT_SPREAD = 0.008;
+
+    private static final double[][] HOTSPOTS = {
+            {34.2350, -77.9410}, {34.2120, -77.8870}, {34.1790, -77.9240}, {34.2480, -77.8690}};
+
+    private static final String[] DESTINATION_NAMES = {"Wilmington Marine Center", "Port City Marina", "Bradley Creek Marina"};
+
+    private static final double[][] DESTINATION_COORDINATES = {{34.1706, -77.9490}, {34.2461, -77.9519}, {34.2138, -77.8868}};
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+            "Charles", "Karen", "Christopher", "Nancy", "Daniel", "Lisa", "Matthew", "Margaret", "Anthony", "Betty"};
+
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+            "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez"};
+
+    private static final long INCIDENTS = 1;
+    private static final long RESPONDERS = 2;
+    private static final long DESTINATIONS = 3;
+
+    private final long seed;
+
+    public IncidentDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public Incident incident(long index) {
+        SplittableRandom random = random(INCIDENTS, index);
+        Incident incident = new Incident();
+        incident.setId(new UUID(random.nextLong(), random.nextLong()).toString());
+        if (random.nextDouble() < HOTSPOT_SHARE) {
+            double[] hotspot = HOTSPOTS[random.nextInt(HOTSPOTS.length)];
+            incident.setLat(coordinate(clamp(hotspot[0] + gaussian(random) * HOTSPOT_SPREAD, MIN_LAT, MAX_LAT)));
+            incident.setLon(coordinate(clamp(hotspot[1] + gaussian(random) * HOTSPOT_SPREAD, MIN_LON, MAX_LON)));
+        } else {
+            incident.setLat(coordinate(random.nextDouble(MIN_LAT, MAX_LAT)));
+            incident.setLon(coordinate(random.nextDouble(MIN_LON, MAX_LON)));
+        }
+        // mostly single people and couples, a few large families
+        incident.setNumberOfPeople(1 + Math.min(9, (int) (-Math.log(1 - random.nextDouble()) * 1.5)));
+        incident.setMedicalNeeded(random.nextDouble() < 0.25);
+        incident.setVictimName(name(random));
+        incident.setVictimPhoneNumber(phoneNumber(random));
+        incident.setReportedTime(FIRST_REPORT + random.nextLong(REPORTING_PERIOD));
+        return incident;
+    }
+
+    /**
+     * The incident generated for the given id, with that id: the same id always gives the same incident.
+     */
+    public Incident incident(String incidentId) {
+        Incident incident = incident(incidentId.hashCode() & 0xffffffffL);
+        incident.setId(incidentId);
+        return incident;
+    }
+
+    public Stream<Incident> incidents(long count) {
+        return LongStream.range(0, count).mapToObj(this::incident);
+    }
+
+    public IncidentPriority incidentPriority(Incident incident) {
+        IncidentPriority incidentPriority = new IncidentPriority();
+        incidentPriority.setIncidentId(incident.getId());
+        int people = incident.getNumberOfPeople() == null ? 1 : incident.getNumberOfPeople();
+        incidentPriority.setPriority(people + (Boolean.TRUE.equals(incident.getMedicalNeeded()) ? 10 : 0));
+        return incidentPriority;
+    }
+
+    public Responder responder(long index) {
+        SplittableRandom random = random(RESPONDERS, index);
+        Responder responder = new Responder();
+        responder.setId(Long.toString(index));
+        responder.setName(name(random));
+        responder.setPhoneNumber(phoneNumber(random));
+        responder.setLatitude(coordinate(random.nextDouble(MIN_LAT, MAX_LAT)));
+        responder.setLongitude(coordinate(random.nextDouble(MIN_LON, MAX_LON)));
+        // from jon boats to fishing boats
+        responder.setBoatCapacity(2 + random.nextInt(11));
+        responder.setMedicalKit(random.nextDouble() < 0.3);
+        return responder;
+    }
+
+    public Stream<Responder> responderStream(long count) {
+        return LongStream.range(0, count).mapToObj(this::responder);
+    }
+
+    public Responders responders(int count) {
+        Responders responders = new Responders();
+        responders.setResponders(responderStream(count).collect(Collectors.toList()));
+        return responders;
+    }
+
+    /**
+     * The destinations of the demo first, then shelters anywhere in the area.
+     */
+    public Destination destination(int index) {
+        Destination destination = new Destination();
+        if (index < DESTINATION_NAMES.length) {
+            destination.setName(DESTINATION_NAMES[index]);
+            destination.setLatitude(coordinate(DESTINATION_COORDINATES[index][0]));
+            destination.setLongitude(coordinate(DESTINATION_COORDINATES[index][1]));
+        } else {
+            SplittableRandom random = random(DESTINATIONS, index);
+            destination.setName("Shelter " + (index - DESTINATION_NAMES.length + 1));
+            destination.setLatitude(coordinate(random.nextDouble(MIN_LAT, MAX_LAT)));
+            destination.setLongitude(coordinate(random.nextDouble(MIN_LON, MAX_LON)));
+        }
+        return destination;
+    }
+
+    public Destinations destinations(int count) {
+        Destinations destinations = new Destinations();
+        destinations.setDestinations(IntStream.range(0, count).mapToObj(this::destination).collect(Collectors.toList()));
+        return destinations;
+    }
+
+    private SplittableRandom random(long kind, long index) {
+        return new SplittableRandom(mix(seed ^ mix(kind * 0x9E3779B97F4A7C15L + index)));
+    }
+
+    /**
+     * Finalizer of SplitMix64, so that neighbouring seeds and indexes give unrelated sequences.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, SplittableRandom has no nextGaussian
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static String name(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String phoneNumber(SplittableRandom random) {
+        return String.format("(910) 555-%04d", random.nextInt(10000));
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    static BigDecimal coordinate(double value) {
+        return BigDecimal.valueOf(value).setScale(5, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,78 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.junit.Test;
+
+public class IncidentDataGeneratorTest {
+
+    @Test
+    public void testSameSeedSameData() {
+        Incident incident = new IncidentDataGenerator(42).incident(7);
+        Incident again = new IncidentDataGenerator(42).incident(7);
+        Incident otherSeed = new IncidentDataGenerator(43).incident(7);
+
+        assertThat(again.getId(), equalTo(incident.getId()));
+        assertThat(again.getLat(), equalTo(incident.getLat()));
+        assertThat(again.getVictimName(), equalTo(incident.getVictimName()));
+        assertThat(otherSeed.getId(), not(equalTo(incident.getId())));
+    }
+
+    @Test
+    public void testStreamMatchesIndex() {
+        IncidentDataGenerator generator = new IncidentDataGenerator(42);
+        List<Responder> streamed = generator.responderStream(100).parallel().collect(Collectors.toList());
+
+        assertThat(streamed.size(), equalTo(100));
+        for (int i = 0; i < streamed.size(); i++) {
+            assertThat(streamed.get(i).getId(), equalTo(Integer.toString(i)));
+            assertThat(streamed.get(i).getLatitude(), equalTo(generator.responder(i).getLatitude()));
+        }
+    }
+
+    @Test
+    public void testLazyStream() {
+        IncidentDataGenerator generator = new IncidentDataGenerator(42);
+
+        assertThat(generator.incidents(Long.MAX_VALUE).skip(10).findFirst().get().getId(), equalTo(generator.incident(10).getId()));
+    }
+
+    @Test
+    public void testIncidentId() {
+        IncidentDataGenerator generator = new IncidentDataGenerator(42);
+        Incident incident = generator.incident("incident-1");
+
+        assertThat(incident.getId(), equalTo("incident-1"));
+        assertThat(generator.incident("incident-1").getLon(), equalTo(incident.getLon()));
+    }
+
+    @Test
+    public void testInArea() {
+        IncidentDataGenerator generator = new IncidentDataGenerator(42);
+        generator.incidents(1000).forEach(incident -> {
+            assertTrue(incident.getLat().toString(), within(incident.getLat(), IncidentDataGenerator.MIN_LAT, IncidentDataGenerator.MAX_LAT));
+            assertTrue(incident.getLon().toString(), within(incident.getLon(), IncidentDataGenerator.MIN_LON, IncidentDataGenerator.MAX_LON));
+            assertTrue(incident.getNumberOfPeople() >= 1 && incident.getNumberOfPeople() <= 10);
+        });
+        Responders responders = generator.responders(10000);
+        assertThat(responders.getResponders().size(), equalTo(10000));
+        Destinations destinations = generator.destinations(5);
+        assertThat(destinations.getDestinations().get(0).getName(), equalTo("Wilmington Marine Center"));
+        assertThat(destinations.getDestinations().get(4).getName(), equalTo("Shelter 2"));
+    }
+
+    private static boolean within(BigDecimal value, double min, double max) {
+        return value.compareTo(IncidentDataGenerator.coordinate(min)) >= 0 && value.compareTo(IncidentDataGenerator.coordinate(max)) <= 0;
+    }
+}
@@ -0,0 +1,192 @@
+package com.redhat.cajun.navy.process;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.persistence.OptimisticLockException;
+
+import com.arjuna.ats.arjuna.coordinator.TxControl;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.BeforeClass;
+import org.kie.api.runtime.manager.RuntimeManager;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.internal.process.CorrelationKey;
+
+/**
+ * Base class for the benchmarks which drive the incident process. The external services are replaced by stub work item
+ * handlers which always complete synchronously; subclasses override the stub results where needed.
+ *
+ * The incidents, responders and destinations are generated by an {@link IncidentDataGenerator}, so that the process
+ * variables have the size they have in production: <code>-Dbenchmark.fleetSize</code> (100) responders and
+ * <code>-Dbenchmark.destinationSize</code> (3) destinations.
+ *
+ * The Mission is a canned assignment unless {@link #rulesBusinessRuleTask} is set (<code>-Dbenchmark.rules=true</code>),
+ * in which case the BusinessRuleTask evaluates the rules of the kjar on the classpath with a
+ * {@link RulesBusinessRuleTaskHandler}.
+ */
+public abstract class IncidentProcessBenchmarkCase extends JbpmBaseTestCase {
+
+    protected static final String INCIDENT_PROCESS = "com/redhat/cajun/navy/process/incident-process.bpmn";
+
+    protected RuntimeManager mgr;
+
+    protected final IncidentDataGenerator data = new IncidentDataGenerator(Long.getLong("benchmark.seed", 42));
+
+    protected boolean rulesBusinessRuleTask = Boolean.getBoolean("benchmark.rules");
+
+    private volatile Responders fleet;
+
+    private volatile Destinations destinations;
+
+    public IncidentProcessBenchmarkCase() {
+        super(true, true);
+    }
+
+    public IncidentProcessBenchmarkCase(boolean setupDataSource, boolean sessionPersistence) {
+        super(setupDataSource, sessionPersistence);
+    }
+
+    public IncidentProcessBenchmarkCase(boolean setupDataSource, boolean sessionPersistence, String persistenceUnitName) {
+        super(setupDataSource, sessionPersistence, persistenceUnitName);
+    }
+
+    @BeforeClass
+    public static void setupTransactionManager() {
+        TxControl.setXANodeName(nodeName());
+        TxControl.setDefaultTimeout(300);
+    }
+
+    /**
+     * The heap used once the garbage collector no longer frees anything, to measure the heap retained by the objects
+     * created between two calls.
+     */
+    protected static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // repeat until the used heap no longer shrinks, finalizers and reference processing may free more
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(100);
+            long current = memory.getHeapMemoryUsage().getUsed();
+            if (current >= used) {
+                return current;
+            }
+            used = current;
+        }
+        return used;
+    }
+
+    // the runtime manager and the persistence of the session each have their own SessionNotFoundException
+    protected static boolean isSessionNotFound(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getClass().getSimpleName().equals("SessionNotFoundException")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockException || t.getClass().getName().endsWith("StaleObjectStateException")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // H2 error code LOCK_TIMEOUT_1
+    protected static boolean isLockTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException && ((SQLException) t).getErrorCode() == 50200) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected Map<String, WorkItemHandler> stubWorkItemHandlers() {
+        Map<String, WorkItemHandler> handlers = new HashMap<>();
+        handlers.put("ResponderService", new CompletingWorkItemHandler(
+                workItem -> Collections.singletonMap("Responders", responders(workItem))));
+        handlers.put("IncidentPriorityService", new CompletingWorkItemHandler(
+                workItem -> Collections.singletonMap("IncidentPriority", incidentPriority(workItem))));
+        if (rulesBusinessRuleTask) {
+            handlers.put("BusinessRuleTask", new RulesBusinessRuleTaskHandler(BenchmarkSettings.intValue("benchmark.poolSize", 1)));
+        } else {
+            handlers.put("BusinessRuleTask", new CompletingWorkItemHandler(
+                    workItem -> Collections.singletonMap("Mission", mission(workItem))));
+        }
+        handlers.put("SendMessage", new CompletingWorkItemHandler(workItem -> {
+            sendMessage(workItem);
+            return Collections.emptyMap();
+        }));
+        return handlers;
+    }
+
+    protected Object responders(WorkItem workItem) {
+        if (fleet == null) {
+            fleet = data.responders(BenchmarkSettings.intValue("benchmark.fleetSize", 100));
+        }
+        return fleet;
+    }
+
+    protected IncidentPriority incidentPriority(WorkItem workItem) {
+        return data.incidentPriority((Incident) workItem.getParameter("Incident"));
+    }
+
+    protected Mission mission(WorkItem workItem) {
+        Mission mission = new Mission();
+        mission.setIncidentId(((Incident) workItem.getParameter("Incident")).getId());
+        mission.setStatus(Status.ASSIGNED);
+        mission.setResponderId("responderId");
+        mission.setResponderStartLat(new BigDecimal("30.12345"));
+        mission.setResponderStartLong(new BigDecimal("-77.98765"));
+        mission.setDestinationLat(new BigDecimal("31.98765"));
+        mission.setDestinationLong(new BigDecimal("-78.13579"));
+        return mission;
+    }
+
+    protected void sendMessage(WorkItem workItem) {
+    }
+
+    protected long startIncident(Incident incident, Destinations destinations, String assignmentDelay) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("incident", incident);
+        parameters.put("destinations", destinations);
+        parameters.put("assignmentDelay", assignmentDelay);
+        CorrelationKey correlationKey = correlationKeyFactory.newCorrelationKey(incident.getId());
+        return startProcess(mgr, "incident-process", correlationKey, parameters);
+    }
+
+    /**
+     * Drives an incident waiting on signal1 (ResponderAvailable) to completion.
+     */
+    protected void completeLifecycle(long pId) {
+        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+        signalProcess(mgr, "MissionStarted", null, pId);
+        signalProcess(mgr, "VictimPickedUp", null, pId);
+        signalProcess(mgr, "VictimDelivered", null, pId);
+    }
+
+    protected Incident incident(String incidentId) {
+        return data.incident(incidentId);
+    }
+
+    protected Destinations destinations() {
+        if (destinations == null) {
+            destinations = data.destinations(BenchmarkSettings.intValue("benchmark.destinationSize", 3));
+        }
+        return destinations;
+    }
+}
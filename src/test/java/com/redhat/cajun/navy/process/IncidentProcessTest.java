@@ -6,7 +6,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -37,6 +39,8 @@ import org.kie.internal.process.CorrelationKey;
 
 public class IncidentProcessTest extends JbpmBaseTestCase {
 
+    private static final String[] LIFECYCLE = {"ResponderAvailable", "MissionStarted", "VictimPickedUp"};
+
     private RuntimeManager mgr;
 
     private Map<String, WorkItemHandler> workItemHandlers;
@@ -59,13 +63,15 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
     private int nrAssignments = 0;
 
+    private final IncidentDataGenerator data = new IncidentDataGenerator(42);
+
     public IncidentProcessTest() {
         super(true, true);
     }
 
     @BeforeClass
     public static void setupTest() {
-        TxControl.setXANodeName("node1");
+        TxControl.setXANodeName(nodeName());
         TxControl.setDefaultTimeout(300);
     }
 
@@ -376,12 +382,7 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         setup(true);
 
-        Incident incident = incident(incidentId);
-
-        long pId = startProcess(incident, destinations, "PT60S");
-
-        // Signal process ResponderAvailable
-        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+        long pId = restoreLifecycle("ResponderAvailable");
 
         // Signal process MissionStarted
         signalProcess(mgr, "MissionStarted",null, pId);
@@ -390,10 +391,10 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         assertNodeTriggered(pId, "Update Incident Assigned");
 
-        verify(workItemHandlers.get("SendMessage"), times(4)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
+        verify(workItemHandlers.get("SendMessage"), times(1)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
 
         // SendMessageTask
-        Map<String, Object> params = sendMessageWihParameters.get(3);
+        Map<String, Object> params = sendMessageWihParameters.get(0);
         assertThat(params, notNullValue());
         assertThat(params.get("MessageType"), equalTo("UpdateIncident"));
         assertThat(params.get("Payload"), notNullValue());
@@ -425,12 +426,7 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         setup(true);
 
-        Incident incident = incident(incidentId);
-
-        long pId = startProcess(incident, destinations, "PT60S");
-
-        // Signal process ResponderAvailable
-        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+        long pId = restoreLifecycle("ResponderAvailable");
 
         // Signal process MissionAborted
         signalProcess(mgr, "MissionAborted", null, pId);
@@ -440,10 +436,10 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
         assertNodeTriggered(pId, "Mission Aborted", "Update Incident Aborted");
         assertNodeNotTriggered(pId, "Update Incident Assigned");
 
-        verify(workItemHandlers.get("SendMessage"), times(4)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
+        verify(workItemHandlers.get("SendMessage"), times(1)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
 
         // SendMessageTask
-        Map<String, Object> params = sendMessageWihParameters.get(3);
+        Map<String, Object> params = sendMessageWihParameters.get(0);
         assertThat(params, notNullValue());
         assertThat(params.get("MessageType"), equalTo("UpdateIncident"));
         assertThat(params.get("Payload"), notNullValue());
@@ -475,15 +471,7 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         setup(true);
 
-        Incident incident = incident(incidentId);
-
-        long pId = startProcess(incident, destinations, "PT60S");
-
-        // Signal process ResponderAvailable
-        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
-
-        // Signal process MissionStarted
-        signalProcess(mgr, "MissionStarted",null, pId);
+        long pId = restoreLifecycle("MissionStarted");
 
         // Signal process VictimPickedUp
         signalProcess(mgr, "VictimPickedUp", null, pId);
@@ -492,10 +480,10 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         assertNodeTriggered(pId, "Update Incident PickedUp");
 
-        verify(workItemHandlers.get("SendMessage"), times(5)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
+        verify(workItemHandlers.get("SendMessage"), times(1)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
 
         // SendMessageTask
-        Map<String, Object> params = sendMessageWihParameters.get(4);
+        Map<String, Object> params = sendMessageWihParameters.get(0);
         assertThat(params, notNullValue());
         assertThat(params.get("MessageType"), equalTo("UpdateIncident"));
         assertThat(params.get("Payload"), notNullValue());
@@ -529,15 +517,7 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         setup(true);
 
-        Incident incident = incident(incidentId);
-
-        long pId = startProcess(incident, destinations, "PT60S");
-
-        // Signal process ResponderAvailable
-        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
-
-        // Signal process MissionStarted
-        signalProcess(mgr, "MissionStarted",null, pId);
+        long pId = restoreLifecycle("MissionStarted");
 
         // Signal process MissionAborted
         signalProcess(mgr, "MissionAborted", null, pId);
@@ -547,10 +527,10 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
         assertNodeTriggered(pId, "Update Incident Assigned", "Mission Aborted", "Update Incident Aborted");
         assertNodeNotTriggered(pId, "Update Incident PickedUp");
 
-        verify(workItemHandlers.get("SendMessage"), times(5)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
+        verify(workItemHandlers.get("SendMessage"), times(1)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
 
         // SendMessageTask
-        Map<String, Object> params = sendMessageWihParameters.get(4);
+        Map<String, Object> params = sendMessageWihParameters.get(0);
         assertThat(params, notNullValue());
         assertThat(params.get("MessageType"), equalTo("UpdateIncident"));
         assertThat(params.get("Payload"), notNullValue());
@@ -584,18 +564,7 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         setup(true);
 
-        Incident incident = incident(incidentId);
-
-        long pId = startProcess(incident, destinations, "PT60S");
-
-        // Signal process ResponderAvailable
-        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
-
-        // Signal process MissionStarted
-        signalProcess(mgr, "MissionStarted",null, pId);
-
-        // Signal process VictimPickedUp
-        signalProcess(mgr, "VictimPickedUp", null, pId);
+        long pId = restoreLifecycle("VictimPickedUp");
 
         // Signal process VictimDelivered
         signalProcess(mgr, "VictimDelivered", null, pId);
@@ -604,10 +573,10 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         assertNodeTriggered(pId, "Update Incident Delivered");
 
-        verify(workItemHandlers.get("SendMessage"), times(6)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
+        verify(workItemHandlers.get("SendMessage"), times(1)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
 
         // SendMessageTask
-        Map<String, Object> params = sendMessageWihParameters.get(5);
+        Map<String, Object> params = sendMessageWihParameters.get(0);
         assertThat(params, notNullValue());
         assertThat(params.get("MessageType"), equalTo("UpdateIncident"));
         assertThat(params.get("Payload"), notNullValue());
@@ -641,19 +610,7 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
 
         setup(true);
 
-        Incident incident = incident(incidentId);
-
-        long pId = startProcess(incident, destinations, "PT60S");
-
-        // Signal process ResponderAvailable
-        // Signal process ResponderAvailable
-        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
-
-        // Signal process MissionStarted
-        signalProcess(mgr, "MissionStarted",null, pId);
-
-        // Signal process VictimPickedUp
-        signalProcess(mgr, "VictimPickedUp", null, pId);
+        long pId = restoreLifecycle("VictimPickedUp");
 
         // Signal process MissionAborted
         signalProcess(mgr, "MissionAborted", null, pId);
@@ -663,10 +620,10 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
         assertNodeTriggered(pId, "Update Incident PickedUp", "Mission Aborted", "Update Incident Aborted");
         assertNodeNotTriggered(pId, "Update Incident Delivered");
 
-        verify(workItemHandlers.get("SendMessage"), times(6)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
+        verify(workItemHandlers.get("SendMessage"), times(1)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
 
         // SendMessageTask
-        Map<String, Object> params = sendMessageWihParameters.get(5);
+        Map<String, Object> params = sendMessageWihParameters.get(0);
         assertThat(params, notNullValue());
         assertThat(params.get("MessageType"), equalTo("UpdateIncident"));
         assertThat(params.get("Payload"), notNullValue());
@@ -676,6 +633,79 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
         assertThat(payload.getStatus(), equalTo("Aborted"));
     }
 
+    /**
+     *  Test description:
+     *    Given:
+     *      an active instance of the incident process
+     *    When :
+     *      an instance of the incident process is started for the same incident
+     *    Then:
+     *      The start is rejected with a DuplicateCorrelationKeyException
+     *      No work item handler is invoked for the duplicate
+     *      Once the first instance is completed, an instance can be started again for the incident.
+     */
+    @Test
+    public void testIncidentProcessDuplicateStart() {
+
+        correlationKeyFilter = new ActiveCorrelationKeyFilter();
+        setup(true);
+
+        Incident incident = incident(incidentId);
+
+        long pId = startProcess(incident, destinations, "PT60S");
+
+        try {
+            startProcess(incident(incidentId), destinations, "PT60S");
+            fail("Duplicate start of incident " + incidentId + " was not rejected");
+        } catch (DuplicateCorrelationKeyException e) {
+            assertThat(e.getCorrelationKey(), equalTo(incidentId));
+        }
+        verify(workItemHandlers.get("ResponderService"), times(1)).executeWorkItem(any(WorkItem.class), any(WorkItemManager.class));
+
+        signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+        signalProcess(mgr, "MissionStarted", null, pId);
+        signalProcess(mgr, "VictimPickedUp", null, pId);
+        signalProcess(mgr, "VictimDelivered", null, pId);
+        assertProcessInstanceCompleted(pId);
+
+        long restarted = startProcess(incident(incidentId), destinations, "PT60S");
+        assertProcessInstanceActive(restarted);
+    }
+
+    /**
+     *  Test description:
+     *    Given:
+     *      an active instance of the incident process, waiting for a responder
+     *    When :
+     *      signals are routed to the incident by correlation key
+     *    Then:
+     *      The incident is only signaled for the signals it waits for
+     *      It leaves the routing index when it completes.
+     */
+    @Test
+    public void testIncidentProcessSignalRouting() {
+
+        signalRoutingIndex = new SignalRoutingIndex();
+        setup(true);
+
+        long pId = startProcess(incident(incidentId), destinations, "PT60S");
+        List<String> incidents = Collections.singletonList(incidentId);
+
+        assertThat(signalRoutingIndex.subscriber("ResponderAvailable", incidentId), equalTo(pId));
+        assertThat(signalIncidents(mgr, "MissionStarted", null, incidents), equalTo(0));
+        assertThat(signalIncidents(mgr, "ResponderAvailable", Boolean.TRUE, incidents), equalTo(1));
+        assertNodeActive(pId, "signal2");
+        assertThat(signalRoutingIndex.subscriber("ResponderAvailable", incidentId), nullValue());
+        assertThat(signalRoutingIndex.subscriber("MissionAborted", incidentId), equalTo(pId));
+
+        assertThat(signalIncidents(mgr, "MissionStarted", null, incidents), equalTo(1));
+        assertThat(signalIncidents(mgr, "VictimPickedUp", null, incidents), equalTo(1));
+        assertThat(signalIncidents(mgr, "VictimDelivered", null, incidents), equalTo(1));
+        assertProcessInstanceCompleted(pId);
+        assertThat(signalRoutingIndex.subscriber("MissionAborted", incidentId), nullValue());
+        assertThat(signalRoutingIndex.subscribers("MissionAborted").contains(pId), is(false));
+    }
+
     private void setup(boolean assigned) {
 
         incidentId = UUID.randomUUID().toString();
@@ -741,6 +771,36 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
         }
     }
 
+    /**
+     * Restores an incident with an assigned mission, as captured after the given signal of its lifecycle, and resets the
+     * SendMessage handler and its recorded messages, so that the test only sees the messages sent after the restore.
+     *
+     * The engine and its data source are set up by each test, so the steps are captured by the first test of the class
+     * which restores one, from a new incident signaled up to the last step, and restored as is by the following ones.
+     */
+    private long restoreLifecycle(String step) {
+        Map<String, Object> state = restoreSnapshot(step);
+        if (state == null) {
+            captureLifecycle();
+            state = restoreSnapshot(step);
+        }
+        incidentId = (String) state.get("incidentId");
+        clearInvocations(workItemHandlers.get("SendMessage"));
+        sendMessageWihParameters.clear();
+        return (Long) state.get("processInstanceId");
+    }
+
+    private void captureLifecycle() {
+        long pId = startProcess(incident(incidentId), destinations, "PT60S");
+        for (String signal : LIFECYCLE) {
+            signalProcess(mgr, signal, "ResponderAvailable".equals(signal) ? Boolean.TRUE : null, pId);
+            Map<String, Object> state = new HashMap<>();
+            state.put("incidentId", incidentId);
+            state.put("processInstanceId", pId);
+            takeSnapshot(signal, state);
+        }
+    }
+
     private Mission businessRuleTaskResult(boolean assigned) {
         Mission mission = new Mission();
         mission.setIncidentId(incidentId);
@@ -767,17 +827,15 @@ public class IncidentProcessTest extends JbpmBaseTestCase {
     }
 
     private Incident incident(String incidentId) {
-        Incident incident = new Incident();
-        incident.setId(incidentId);
-        return incident;
+        return data.incident(incidentId);
     }
 
     private Destinations destinations() {
-        return new Destinations();
+        return data.destinations(3);
     }
 
     private Responders responders() {
-        return new Responders();
+        return data.responders(10);
     }
 
     private IncidentPriority incidentPriority(String incidentId) {
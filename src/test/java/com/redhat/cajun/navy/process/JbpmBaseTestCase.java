@@ -4,10 +4,17 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.metamodel.EntityType;
 
 import org.drools.core.audit.event.LogEvent;
 import org.drools.core.audit.event.RuleFlowNodeLogEvent;
@@ -16,48 +23,136 @@ import org.drools.core.command.runtime.process.StartCorrelatedProcessCommand;
 import org.drools.core.command.runtime.process.StartProcessCommand;
 import org.jbpm.executor.ExecutorServiceFactory;
 import org.jbpm.executor.impl.wih.AsyncWorkItemHandler;
+import org.jbpm.process.audit.AbstractAuditLogger;
 import org.jbpm.process.audit.JPAAuditLogService;
 import org.jbpm.process.instance.event.DefaultSignalManagerFactory;
 import org.jbpm.process.instance.impl.DefaultProcessInstanceManagerFactory;
 import org.jbpm.runtime.manager.impl.DefaultRegisterableItemsFactory;
+import org.jbpm.runtime.manager.impl.jpa.EntityManagerFactoryManager;
 import org.jbpm.services.task.identity.JBossUserGroupCallbackImpl;
+import org.jbpm.services.task.impl.model.TaskImpl;
 import org.jbpm.test.JbpmJUnitBaseTestCase;
 import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TestName;
 import org.kie.api.command.Command;
+import org.kie.api.event.process.ProcessEventListener;
 import org.kie.api.executor.ExecutorService;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.manager.Context;
 import org.kie.api.runtime.manager.RuntimeEngine;
+import org.kie.api.runtime.manager.RuntimeEnvironment;
 import org.kie.api.runtime.manager.RuntimeEnvironmentBuilder;
 import org.kie.api.runtime.manager.RuntimeManager;
+import org.kie.api.runtime.manager.RuntimeManagerFactory;
 import org.kie.api.runtime.manager.audit.AuditService;
 import org.kie.api.runtime.manager.audit.NodeInstanceLog;
 import org.kie.api.runtime.manager.audit.ProcessInstanceLog;
 import org.kie.api.runtime.manager.audit.VariableInstanceLog;
 import org.kie.api.runtime.process.ProcessInstance;
 import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.task.TaskService;
 import org.kie.internal.KieInternalServices;
 import org.kie.internal.io.ResourceFactory;
 import org.kie.internal.process.CorrelationKey;
 import org.kie.internal.process.CorrelationKeyFactory;
+import org.kie.internal.runtime.manager.TaskServiceFactory;
 import org.kie.internal.runtime.manager.context.ProcessInstanceIdContext;
+import org.kie.test.util.db.DataSourceFactory;
+import org.kie.test.util.db.PoolingDataSourceWrapper;
+import org.slf4j.MDC;
 
 public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
 
     private ExecutorService executorService;
 
+    private SchemaTemplate schemaTemplate;
+
+    private String persistenceUnitName = DEFAULT_PERSISTENCE_UNIT;
+
+    private final List<ShardedRuntimeManager> shardedManagers = new ArrayList<>();
+
     protected CorrelationKeyFactory correlationKeyFactory = KieInternalServices.Factory.get().newCorrelationKeyFactory();
 
+    /**
+     * Whether a runtime engine without session persistence gets the in-memory audit logger of JbpmJUnitBaseTestCase,
+     * which the node assertions read. A new logger is added to the session at every request of a runtime engine, so
+     * they pile up on a singleton session.
+     */
+    protected boolean inMemoryAuditLog = true;
+
+    /**
+     * Whether the {@link MdcProcessEventListener} is registered on the runtime managers created afterwards.
+     */
+    protected boolean processMdc = MdcProcessEventListener.isEnabled();
+
+    /**
+     * Whether the {@link ProcessFlightRecorder} events are emitted by the runtime managers created afterwards.
+     */
+    protected boolean flightRecorder = ProcessFlightRecorder.isEnabled();
+
+    /**
+     * Rejects correlated starts of an active correlation key before they reach the database, null when disabled.
+     * Registered as a process event listener of the runtime managers created afterwards.
+     */
+    protected ActiveCorrelationKeyFilter correlationKeyFilter = ActiveCorrelationKeyFilter.isEnabled()
+            ? new ActiveCorrelationKeyFilter() : null;
+
+    /**
+     * Signals the active process instances wait for, by correlation key, null when disabled. Registered as a process event
+     * listener of the runtime managers created afterwards.
+     */
+    protected SignalRoutingIndex signalRoutingIndex = SignalRoutingIndex.isEnabled() ? new SignalRoutingIndex() : null;
+
+    /**
+     * Bytes allocated by the calling thread for each start and signal of the test, null when disabled. Reported at the end
+     * of the test, which fails if a transition exceeds its <code>-Djbpm.allocationBudget</code>.
+     */
+    protected AllocationProfiler allocationProfiler = AllocationProfiler.isEnabled() ? new AllocationProfiler() : null;
+
+    @Rule
+    public TestName testName = new TestName();
+
+    public static final String NODE_NAME_PROPERTY = "jbpm.nodeName";
+
+    public static final String DATABASE_URL_PROPERTY = "jbpm.databaseUrl";
+
+    public static final String PERSISTENCE_UNIT_PROPERTY = "jbpm.persistenceUnit";
+
+    public static final String DEFAULT_PERSISTENCE_UNIT = "org.jbpm.persistence.jpa";
+
+    /**
+     * The process engine entities alone, without the task service, task audit, BAM, notification and executor entities.
+     */
+    public static final String LEAN_PERSISTENCE_UNIT = "org.jbpm.persistence.jpa.lean";
+
+    // by test class and step, kept for the JVM so that the steps of a class are captured once
+    private static final Map<String, DatabaseSnapshot> snapshots = new ConcurrentHashMap<>();
+
     public JbpmBaseTestCase() {
         super();
     }
 
+    /**
+     * With the persistence unit <code>-Djbpm.persistenceUnit</code>, {@link #DEFAULT_PERSISTENCE_UNIT} by default. The
+     * tests of human tasks and of the jbpm-executor need the default unit.
+     */
     public JbpmBaseTestCase(boolean setupDataSource, boolean sessionPersistence) {
-        super(setupDataSource, sessionPersistence);
+        this(setupDataSource, sessionPersistence, System.getProperty(PERSISTENCE_UNIT_PROPERTY, DEFAULT_PERSISTENCE_UNIT));
     }
 
     public JbpmBaseTestCase(boolean setupDataSource, boolean sessionPersistence, String persistenceUnitName) {
         super(setupDataSource, sessionPersistence, persistenceUnitName);
+        this.persistenceUnitName = persistenceUnitName;
+    }
+
+    @Before
+    public void exportSchemaTemplate() {
+        if (schemaTemplate != null) {
+            schemaTemplate.export();
+        }
     }
 
     @After
@@ -65,8 +160,95 @@ public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
         if (executorService != null) {
             executorService.destroy();
             executorService = null;
+            EntityManagerFactoryManager.get().remove(persistenceUnitName);
+        }
+        for (ShardedRuntimeManager sharded : shardedManagers) {
+            sharded.close();
         }
+        shardedManagers.clear();
         super.tearDown();
+        if (schemaTemplate != null) {
+            schemaTemplate.close();
+            schemaTemplate = null;
+        }
+        if (allocationProfiler != null) {
+            String scenario = getClass().getSimpleName() + "." + testName.getMethodName();
+            allocationProfiler.report(scenario);
+            allocationProfiler.assertWithinBudget(scenario);
+        }
+    }
+
+    /**
+     * The XA node name of the transaction manager of this JVM, <code>-Djbpm.nodeName</code>, "node1" by default. The JVMs
+     * which share a database, as the replicas of the process service, need distinct node names.
+     */
+    protected static String nodeName() {
+        return System.getProperty(NODE_NAME_PROPERTY, "node1");
+    }
+
+    /**
+     * With <code>-Djbpm.databaseUrl=&lt;url&gt;</code>, e.g. an H2 server shared with other JVMs, the test uses that database
+     * as is. Otherwise with <code>-Djbpm.schemaTemplate=true</code>, every test gets its own database cloned from the
+     * {@link SchemaTemplate}, and the persistence unit skips the schema inspection and migration.
+     */
+    @Override
+    protected PoolingDataSourceWrapper setupPoolingDataSource() {
+        String databaseUrl = System.getProperty(DATABASE_URL_PROPERTY);
+        if (databaseUrl != null) {
+            return setupPoolingDataSource("jdbc/jbpm-ds", databaseUrl);
+        }
+        if (!SchemaTemplate.isEnabled()) {
+            return super.setupPoolingDataSource();
+        }
+        schemaTemplate = SchemaTemplate.newDatabase(persistenceUnitName);
+        if (schemaTemplate.isCloned()) {
+            setPersistenceProperty("hibernate.hbm2ddl.auto", "none");
+            setPersistenceProperty("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        }
+        return setupPoolingDataSource("jdbc/jbpm-ds", schemaTemplate.getUrl());
+    }
+
+    protected PoolingDataSourceWrapper setupPoolingDataSource(String uniqueName, String url) {
+        Properties driverProperties = new Properties();
+        driverProperties.put("user", "sa");
+        driverProperties.put("password", "");
+        driverProperties.put("url", url);
+        driverProperties.put("driverClassName", "org.h2.Driver");
+        driverProperties.put("className", "org.h2.jdbcx.JdbcDataSource");
+        return DataSourceFactory.setupPoolingDataSource(uniqueName, driverProperties);
+    }
+
+    /**
+     * Captures the database after the given step of a scenario, with the test state needed to go on from there. The
+     * snapshot is shared by the tests of the class, a step captured again replaces it.
+     */
+    protected void takeSnapshot(String step, Map<String, Object> state) {
+        snapshots.put(getClass().getName() + "#" + step, DatabaseSnapshot.capture(getDs(), state));
+    }
+
+    /**
+     * Restores the database captured after the given step, and the in-memory state of the engine which depends on it.
+     * Returns the test state of the snapshot, or null if the step has not been captured by a test of the class.
+     */
+    protected Map<String, Object> restoreSnapshot(String step) {
+        DatabaseSnapshot snapshot = snapshots.get(getClass().getName() + "#" + step);
+        if (snapshot == null) {
+            return null;
+        }
+        Map<String, Object> state = snapshot.restore(getDs());
+        if (correlationKeyFilter != null) {
+            EntityManager em = getEmf().createEntityManager();
+            try {
+                correlationKeyFilter.reset(em.createQuery("select c.name from CorrelationKeyInfo c", String.class).getResultList());
+            } finally {
+                em.close();
+            }
+        }
+        if (signalRoutingIndex != null) {
+            signalRoutingIndex.clear();
+            signalRoutingIndex.rebuild(getEmf());
+        }
+        return state;
     }
 
     protected Map<String, WorkItemHandler> getWorkItemHandlers() {
@@ -89,6 +271,10 @@ public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
             throw new IllegalStateException("There is already one RuntimeManager active");
         }
 
+        return createRuntimeManager(strategy, resources, createRuntimeEnvironment(getEmf(), workItemHandlers, process), identifier);
+    }
+
+    protected RuntimeEnvironment createRuntimeEnvironment(EntityManagerFactory emf, final Map<String, WorkItemHandler> workItemHandlers, String... process) {
         RuntimeEnvironmentBuilder builder = null;
         if (!setupDataSource){
             builder = RuntimeEnvironmentBuilder.Factory.get()
@@ -98,15 +284,20 @@ public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
         } else if (sessionPersistence) {
             builder = RuntimeEnvironmentBuilder.Factory.get()
                     .newDefaultBuilder()
-            .entityManagerFactory(getEmf());
+            .entityManagerFactory(emf);
+            if (!hasTaskEntities(emf)) {
+                // e.g. the lean persistence unit, the task service would fail on its first query
+                builder.addEnvironmentEntry(TaskServiceFactory.class.getName(), new NoTaskServiceFactory());
+            }
         } else {
             builder = RuntimeEnvironmentBuilder.Factory.get()
                     .newDefaultInMemoryBuilder();
         }
         builder.userGroupCallback(new JBossUserGroupCallbackImpl("classpath:/usergroups.properties"));
+        configureEnvironment(builder);
 
-        for (Map.Entry<String, ResourceType> entry : resources.entrySet()) {
-            builder.addAsset(ResourceFactory.newClassPathResource(entry.getKey()), entry.getValue());
+        for (String p : process) {
+            builder.addAsset(ResourceFactory.newClassPathResource(p), ResourceType.BPMN2);
         }
 
         builder.registerableItemsFactory(new DefaultRegisterableItemsFactory() {
@@ -115,14 +306,128 @@ public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
             public Map<String, WorkItemHandler> getWorkItemHandlers(RuntimeEngine runtime) {
                 Map<String, WorkItemHandler> handlers = super.getWorkItemHandlers(runtime);
                 for (Map.Entry<String, WorkItemHandler> entry : workItemHandlers.entrySet()) {
-                    handlers.put(entry.getKey(), entry.getValue());
+                    WorkItemHandler handler = entry.getValue();
+                    if (flightRecorder) {
+                        handler = new FlightRecorderWorkItemHandler(handler);
+                    }
+                    handlers.put(entry.getKey(), handler);
                 }
                 return handlers;
             }
 
-
+            @Override
+            public List<ProcessEventListener> getProcessEventListeners(RuntimeEngine runtime) {
+                List<ProcessEventListener> listeners = super.getProcessEventListeners(runtime);
+                if (!sessionPersistence) {
+                    // without session persistence there is no entity manager for the JPA audit logger
+                    listeners.removeIf(listener -> listener instanceof AbstractAuditLogger);
+                }
+                listeners.addAll(JbpmBaseTestCase.this.getProcessEventListeners());
+                return listeners;
+            }
         });
-        return createRuntimeManager(strategy, resources, builder.get(), identifier);
+        return builder.get();
+    }
+
+    /**
+     * Creates K runtime managers of the given strategy, with the incidents routed by correlation key. With separate
+     * databases every shard gets its own in-memory database (cloned from the {@link SchemaTemplate} when it has been
+     * built) and persistence unit, otherwise all the shards share the database of the test.
+     */
+    protected ShardedRuntimeManager createShardedRuntimeManager(Strategy strategy, int shards, boolean separateDatabases,
+            String identifier, Map<String, WorkItemHandler> workItemHandlers, String... process) {
+        if (!sessionPersistence) {
+            throw new IllegalStateException("Sharding requires session persistence");
+        }
+        ShardedRuntimeManager sharded = new ShardedRuntimeManager();
+        shardedManagers.add(sharded);
+        for (int i = 0; i < shards; i++) {
+            EntityManagerFactory emf = getEmf();
+            if (separateDatabases) {
+                SchemaTemplate database = SchemaTemplate.newDatabase(persistenceUnitName);
+                sharded.addResource(database);
+                String dataSourceName = "jdbc/jbpm-ds-" + identifier + "-" + i;
+                sharded.addResource(setupPoolingDataSource(dataSourceName, database.getUrl())::close);
+                Map<String, Object> properties = new HashMap<>();
+                properties.put("javax.persistence.jtaDataSource", dataSourceName);
+                if (database.isCloned()) {
+                    properties.put("hibernate.hbm2ddl.auto", "none");
+                    properties.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+                }
+                emf = Persistence.createEntityManagerFactory(persistenceUnitName, properties);
+                sharded.addResource(emf::close);
+            }
+            RuntimeEnvironment environment = createRuntimeEnvironment(emf, workItemHandlers, process);
+            String shardIdentifier = identifier + "-" + i;
+            RuntimeManagerFactory factory = RuntimeManagerFactory.Factory.get();
+            RuntimeManager shardManager;
+            switch (strategy) {
+                case SINGLETON:
+                    shardManager = factory.newSingletonRuntimeManager(environment, shardIdentifier);
+                    break;
+                case REQUEST:
+                    shardManager = factory.newPerRequestRuntimeManager(environment, shardIdentifier);
+                    break;
+                default:
+                    shardManager = factory.newPerProcessInstanceRuntimeManager(environment, shardIdentifier);
+                    break;
+            }
+            sharded.addShard(shardManager, emf);
+        }
+        return sharded;
+    }
+
+    /**
+     * Process event listeners registered on every runtime engine: the {@link MdcProcessEventListener}, the
+     * {@link ActiveCorrelationKeyFilter} and the {@link SignalRoutingIndex} and the {@link FlightRecorderProcessEventListener}
+     * when enabled.
+     */
+    protected List<ProcessEventListener> getProcessEventListeners() {
+        List<ProcessEventListener> listeners = new ArrayList<>();
+        if (processMdc) {
+            listeners.add(new MdcProcessEventListener());
+        }
+        if (correlationKeyFilter != null) {
+            listeners.add(correlationKeyFilter);
+        }
+        if (signalRoutingIndex != null) {
+            listeners.add(signalRoutingIndex);
+        }
+        if (flightRecorder) {
+            listeners.add(new FlightRecorderProcessEventListener());
+        }
+        return listeners;
+    }
+
+    private static boolean hasTaskEntities(EntityManagerFactory emf) {
+        for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+            if (entity.getJavaType() == TaskImpl.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runtime engines without a task service: the default registerable items leave it out of the handler and listener
+     * parameters, and a human task fails when it is reached.
+     */
+    private static final class NoTaskServiceFactory implements TaskServiceFactory {
+
+        @Override
+        public TaskService newTaskService() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Hook to add environment entries or configuration to the runtime environment before the RuntimeManager is created.
+     */
+    protected void configureEnvironment(RuntimeEnvironmentBuilder builder) {
     }
 
     protected String getProcessVarValue(long processInstanceId, String varName) {
@@ -293,13 +598,48 @@ public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
     }
 
     protected long startProcess(RuntimeManager mgr, Command<ProcessInstance> command) {
-        RuntimeEngine runtimeEngine = getRuntimeEngine();
-        KieSession session = runtimeEngine.getKieSession();
-        ProcessInstance result = session.execute(command);
-        long processInstanceId = result.getId();
-        mgr.disposeRuntimeEngine(runtimeEngine);
-        activeEngines.remove(runtimeEngine);
-        return processInstanceId;
+        String correlationKey = null;
+        if (command instanceof StartCorrelatedProcessCommand) {
+            correlationKey = ((StartCorrelatedProcessCommand) command).getCorrelationKey().toExternalForm();
+            MDC.put(ProcessMdc.INCIDENT_ID, correlationKey);
+        }
+        boolean acquired = false;
+        try {
+            if (correlationKey != null && correlationKeyFilter != null) {
+                if (!correlationKeyFilter.tryAcquire(correlationKey)) {
+                    throw new DuplicateCorrelationKeyException(correlationKey);
+                }
+                acquired = true;
+            }
+            Object event = flightRecorder ? ProcessFlightRecorderEvents.beginProcessStart(correlationKey) : null;
+            long allocated = allocationProfiler != null ? allocationProfiler.begin() : 0;
+            RuntimeEngine runtimeEngine = getRuntimeEngine();
+            ProcessInstance result;
+            try {
+                KieSession session = runtimeEngine.getKieSession();
+                result = session.execute(command);
+            } finally {
+                mgr.disposeRuntimeEngine(runtimeEngine);
+                synchronized (activeEngines) {
+                    activeEngines.remove(runtimeEngine);
+                }
+            }
+            long processInstanceId = result.getId();
+            if (allocationProfiler != null) {
+                allocationProfiler.end("start:" + result.getProcessId(), allocated);
+            }
+            if (event != null) {
+                ProcessFlightRecorderEvents.commitProcessStart(event, processInstanceId, result.getProcessId());
+            }
+            return processInstanceId;
+        } catch (RuntimeException e) {
+            if (acquired) {
+                correlationKeyFilter.release(correlationKey);
+            }
+            throw e;
+        } finally {
+            ProcessMdc.clear();
+        }
     }
 
     protected void signalProcess(RuntimeManager mgr, String type, Object event ) {
@@ -312,21 +652,96 @@ public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
         signalProcess(mgr, signalCommand, instanceId);
     }
 
+    /**
+     * Sends the signal to the incidents of the given correlation keys which wait for it, one targeted signal each, instead
+     * of a broadcast to every process instance waiting for it. Returns the number of process instances signaled.
+     */
+    protected int signalIncidents(RuntimeManager mgr, String type, Object event, Collection<String> correlationKeys) {
+        if (signalRoutingIndex == null) {
+            throw new IllegalStateException("The signal routing index is disabled, see " + SignalRoutingIndex.ENABLED_PROPERTY);
+        }
+        List<Long> subscribers = signalRoutingIndex.route(type, correlationKeys);
+        for (long instanceId : subscribers) {
+            signalProcess(mgr, type, event, instanceId);
+        }
+        return subscribers.size();
+    }
+
     protected void signalProcess(RuntimeManager mgr, Command<Void> command) {
+        // the allocations are measured from the acquisition of the runtime engine to its disposal, as for a start
+        long allocated = allocationProfiler != null ? allocationProfiler.begin() : 0;
         RuntimeEngine runtimeEngine = getRuntimeEngine();
-        signalProcess(mgr, runtimeEngine, command);
+        signalProcess(mgr, runtimeEngine, command, allocated);
     }
 
     protected void signalProcess(RuntimeManager mgr, Command<Void> command, long instanceId) {
-        RuntimeEngine runtimeEngine = getRuntimeEngine(ProcessInstanceIdContext.get(instanceId));
-        signalProcess(mgr, runtimeEngine, command);
+        MDC.put(ProcessMdc.PROCESS_INSTANCE_ID, Long.toString(instanceId));
+        try {
+            long allocated = allocationProfiler != null ? allocationProfiler.begin() : 0;
+            RuntimeEngine runtimeEngine = getRuntimeEngine(ProcessInstanceIdContext.get(instanceId));
+            signalProcess(mgr, runtimeEngine, command, allocated);
+        } finally {
+            ProcessMdc.clear();
+        }
     }
 
+    /**
+     * Executes the command in a runtime engine acquired by the caller, and disposes it. The allocations of the
+     * acquisition are not measured.
+     */
     protected void signalProcess(RuntimeManager mgr, RuntimeEngine runtimeEngine, Command<Void> command) {
-        KieSession session = runtimeEngine.getKieSession();
-        session.execute(command);
-        mgr.disposeRuntimeEngine(runtimeEngine);
-        activeEngines.remove(runtimeEngine);
+        signalProcess(mgr, runtimeEngine, command, allocationProfiler != null ? allocationProfiler.begin() : 0);
+    }
+
+    private void signalProcess(RuntimeManager mgr, RuntimeEngine runtimeEngine, Command<Void> command, long allocated) {
+        Object event = null;
+        if (flightRecorder && command instanceof SignalEventCommand) {
+            SignalEventCommand signalCommand = (SignalEventCommand) command;
+            event = ProcessFlightRecorderEvents.beginSignalDelivery(
+                    signalCommand.getProcessInstanceId() == null ? -1 : signalCommand.getProcessInstanceId(),
+                    signalCommand.getEventType());
+        }
+        try {
+            try {
+                KieSession session = runtimeEngine.getKieSession();
+                session.execute(command);
+            } finally {
+                mgr.disposeRuntimeEngine(runtimeEngine);
+                synchronized (activeEngines) {
+                    activeEngines.remove(runtimeEngine);
+                }
+            }
+            if (allocationProfiler != null) {
+                allocationProfiler.end(command instanceof SignalEventCommand
+                        ? "signal:" + ((SignalEventCommand) command).getEventType()
+                        : command.getClass().getSimpleName(), allocated);
+            }
+        } finally {
+            ProcessMdc.clear();
+            if (event != null) {
+                ProcessFlightRecorderEvents.commitSignalDelivery(event);
+            }
+        }
+    }
+
+    // runtime engines can be requested concurrently, e.g. when signals are raced against the same process instance.
+    // The engine is acquired outside of the lock, as the manager blocks until the engine of the same process instance
+    // is disposed by another thread.
+    @Override
+    protected RuntimeEngine getRuntimeEngine(Context<?> context) {
+        if (!sessionPersistence && inMemoryAuditLog) {
+            synchronized (activeEngines) {
+                return super.getRuntimeEngine(context);
+            }
+        }
+        if (manager == null) {
+            throw new IllegalStateException("RuntimeManager is not initialized, did you forgot to create it?");
+        }
+        RuntimeEngine runtimeEngine = manager.getRuntimeEngine(context);
+        synchronized (activeEngines) {
+            activeEngines.add(runtimeEngine);
+        }
+        return runtimeEngine;
     }
 
     @Override
@@ -346,9 +761,20 @@ public class JbpmBaseTestCase extends JbpmJUnitBaseTestCase {
     }
 
     protected AsyncWorkItemHandler getAsynchWorkItemHandler() {
-        executorService = ExecutorServiceFactory.newExecutorService(getEmf());
-        executorService.init();
-        return new AsyncWorkItemHandler(executorService);
+        return new AsyncWorkItemHandler(getExecutorService());
+    }
+
+    /**
+     * The jbpm-executor of the test, started on first use. The entity manager factory of the test is registered under the
+     * persistence unit name, so that commands can look it up with <code>EmfName</code> like the jBPM ones.
+     */
+    protected ExecutorService getExecutorService() {
+        if (executorService == null) {
+            EntityManagerFactoryManager.get().addEntityManagerFactory(persistenceUnitName, getEmf());
+            executorService = ExecutorServiceFactory.newExecutorService(getEmf());
+            executorService.init();
+        }
+        return executorService;
     }
 
 }
@@ -0,0 +1,49 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+public class JsonLogLayoutTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testOneDocumentPerLine() throws Exception {
+        String message = "Signal \"MissionStarted\" to C:\\incidents\r\n\tline\u0001 \u00e9";
+        Logger logger = new LoggerContext().getLogger("incident");
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.WARN, message,
+                new IllegalStateException("broken \"state\"\nsecond line"), null);
+        Map<String, String> mdc = new HashMap<>();
+        mdc.put(ProcessMdc.PROCESS_INSTANCE_ID, "42");
+        mdc.put(ProcessMdc.INCIDENT_ID, "incident-\"7\"");
+        mdc.put("message", "not the message");
+        event.setMDCPropertyMap(mdc);
+
+        JsonLogLayout layout = new JsonLogLayout();
+        String line = layout.doLayout(event);
+
+        assertThat(line.indexOf('\n'), is(line.length() - 1));
+        JsonNode json = mapper.readTree(line);
+        assertThat(json.get("level").asText(), equalTo("WARN"));
+        assertThat(json.get("logger").asText(), equalTo("incident"));
+        assertThat(json.get("message").asText(), equalTo(message));
+        assertThat(json.get("mdc").get(ProcessMdc.PROCESS_INSTANCE_ID).asText(), equalTo("42"));
+        assertThat(json.get("mdc").get(ProcessMdc.INCIDENT_ID).asText(), equalTo("incident-\"7\""));
+        assertThat(json.get("mdc").get("message").asText(), equalTo("not the message"));
+        assertThat(json.get("exception").asText(), containsString("broken \"state\"\nsecond line"));
+        assertThat(json.get("exception").asText(), containsString("at " + JsonLogLayoutTest.class.getName()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.redhat.cajun.navy.process;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON payloads, as sent to Kafka today.
+ */
+public class JsonPayloadCodec implements PayloadCodec {
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public void encode(Object payload, PayloadBuffer buffer) {
+        buffer.reset();
+        try {
+            mapper.writeValue(buffer, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Object decode(String messageType, byte[] data, int offset, int length) {
+        try {
+            return mapper.readValue(data, offset, length, PayloadCodec.payloadType(messageType));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
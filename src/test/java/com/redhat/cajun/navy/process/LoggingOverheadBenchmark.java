@@ -0,0 +1,114 @@
+package com.redhat.cajun.navy.process;
+
+import java.net.URL;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.junit.After;
+import org.junit.Test;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessEventListener;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the cost of logging per node transition of the incident process, with every transition logged by the
+ * {@link MdcProcessEventListener}: without logging, with the synchronous text console of <code>logback.xml</code> and with
+ * the asynchronous JSON console of <code>logback-load.xml</code>. The overhead is relative to the first configuration.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=LoggingOverheadBenchmark -Dbenchmark.incidents=500</code>.
+ */
+public class LoggingOverheadBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingOverheadBenchmark.class);
+
+    private static final String OFF = "off";
+
+    private final AtomicLong transitions = new AtomicLong();
+
+    public LoggingOverheadBenchmark() {
+        processMdc = true;
+    }
+
+    @After
+    public void restoreLogging() throws JoranException {
+        configure("logback.xml");
+    }
+
+    @Override
+    protected List<ProcessEventListener> getProcessEventListeners() {
+        List<ProcessEventListener> listeners = super.getProcessEventListeners();
+        listeners.add(new DefaultProcessEventListener() {
+            @Override
+            public void beforeNodeTriggered(ProcessNodeTriggeredEvent event) {
+                transitions.incrementAndGet();
+            }
+        });
+        return listeners;
+    }
+
+    @Test
+    public void overheadPerTransition() throws Exception {
+        String[] configurations = BenchmarkSettings.stringList("benchmark.logConfigs", OFF + ",logback.xml,logback-load.xml");
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 200);
+        int rounds = BenchmarkSettings.intValue("benchmark.rounds", 3);
+        int warmup = BenchmarkSettings.intValue("benchmark.warmup", 100);
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "logging-overhead", stubWorkItemHandlers(), INCIDENT_PROCESS);
+        configure(OFF);
+        runIncidents(warmup);
+
+        // the configurations take turns, so that they are equally affected by the growth of the database
+        long[] elapsed = new long[configurations.length];
+        long[] transitionCounts = new long[configurations.length];
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < configurations.length; i++) {
+                configure(configurations[i]);
+                transitions.set(0);
+                long start = System.nanoTime();
+                runIncidents(incidents);
+                elapsed[i] += System.nanoTime() - start;
+                transitionCounts[i] += transitions.get();
+            }
+        }
+        configure("logback.xml");
+
+        double baseline = elapsed[0] / 1000.0 / transitionCounts[0];
+        for (int i = 0; i < configurations.length; i++) {
+            double perTransition = elapsed[i] / 1000.0 / transitionCounts[i];
+            log.info("Logging {}: incidents={} transitions={} per transition={}us overhead={}us", configurations[i],
+                    incidents * rounds, transitionCounts[i], String.format("%.1f", perTransition),
+                    String.format("%.1f", perTransition - baseline));
+        }
+    }
+
+    private void runIncidents(int incidents) {
+        for (int i = 0; i < incidents; i++) {
+            long pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60S");
+            completeLifecycle(pId);
+        }
+    }
+
+    private static void configure(String configuration) throws JoranException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        if (OFF.equals(configuration)) {
+            context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.OFF);
+            return;
+        }
+        URL resource = LoggingOverheadBenchmark.class.getClassLoader().getResource(configuration);
+        if (resource == null) {
+            throw new IllegalArgumentException("No logging configuration " + configuration);
+        }
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(resource);
+        context.getLogger(MdcProcessEventListener.class).setLevel(Level.DEBUG);
+    }
+}
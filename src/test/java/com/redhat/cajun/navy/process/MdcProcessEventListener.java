@@ -0,0 +1,62 @@
+package com.redhat.cajun.navy.process;
+
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessNodeLeftEvent;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.event.process.ProcessStartedEvent;
+import org.kie.api.event.process.ProcessVariableChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Keeps the {@link ProcessMdc} keys up to date while the engine runs a process instance, and logs every node transition
+ * at debug level. A broadcast signal reaches the waiting process instances one after the other: the keys are set again
+ * when the signal leaves the catching node of each instance.
+ *
+ * Registered by {@link JbpmBaseTestCase} with <code>-Djbpm.mdc=true</code>, e.g. for load runs with
+ * <code>logback-load.xml</code>.
+ */
+public class MdcProcessEventListener extends DefaultProcessEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MdcProcessEventListener.class);
+
+    public static final String ENABLED_PROPERTY = "jbpm.mdc";
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    @Override
+    public void beforeProcessStarted(ProcessStartedEvent event) {
+        ProcessMdc.put(event.getProcessInstance());
+    }
+
+    @Override
+    public void beforeNodeTriggered(ProcessNodeTriggeredEvent event) {
+        ProcessMdc.put(event.getProcessInstance());
+        String nodeName = event.getNodeInstance().getNodeName();
+        if (nodeName != null) {
+            MDC.put(ProcessMdc.NODE_NAME, nodeName);
+        } else {
+            MDC.remove(ProcessMdc.NODE_NAME);
+        }
+        log.debug("Node triggered");
+    }
+
+    @Override
+    public void beforeNodeLeft(ProcessNodeLeftEvent event) {
+        ProcessMdc.put(event.getProcessInstance());
+        String nodeName = event.getNodeInstance().getNodeName();
+        if (nodeName != null) {
+            MDC.put(ProcessMdc.NODE_NAME, nodeName);
+        } else {
+            MDC.remove(ProcessMdc.NODE_NAME);
+        }
+    }
+
+    @Override
+    public void beforeVariableChanged(ProcessVariableChangedEvent event) {
+        ProcessMdc.put(event.getProcessInstance());
+    }
+}
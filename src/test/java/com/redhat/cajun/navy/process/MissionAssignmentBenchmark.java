@@ -0,0 +1,108 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.drools.core.process.instance.impl.WorkItemImpl;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the latency of a mission assignment by the real rules (BusinessRuleTask) as the number of responders and
+ * destinations grows.
+ *
+ * The responders are generated at random, so an incident may find no responder with enough boat capacity or a medical
+ * kit; the rules then leave the Mission unassigned. Those outcomes are counted and logged with the latencies of each
+ * configuration, since an unassigned incident fires fewer rules.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=MissionAssignmentBenchmark</code>.
+ */
+public class MissionAssignmentBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(MissionAssignmentBenchmark.class);
+
+    private final IncidentDataGenerator data = new IncidentDataGenerator(42);
+
+    private long incidents;
+
+    @AfterClass
+    public static void disposeContainers() {
+        RulesBusinessRuleTaskHandler.disposeContainers();
+    }
+
+    @Test
+    public void missionAssignmentLatency() {
+        int[] fleetSizes = BenchmarkSettings.intList("benchmark.fleetSizes", "10,100,1000,5000");
+        int[] destinationSizes = BenchmarkSettings.intList("benchmark.destinationSizes", "3,30");
+        int warmup = BenchmarkSettings.intValue("benchmark.warmup", 200);
+        int iterations = BenchmarkSettings.intValue("benchmark.iterations", 1000);
+
+        RulesBusinessRuleTaskHandler handler = new RulesBusinessRuleTaskHandler(BenchmarkSettings.intValue("benchmark.poolSize", 1));
+        for (int fleetSize : fleetSizes) {
+            for (int destinationSize : destinationSizes) {
+                Responders responders = data.responders(fleetSize);
+                Destinations destinations = data.destinations(destinationSize);
+                for (int i = 0; i < warmup; i++) {
+                    assign(handler, responders, destinations);
+                }
+                LatencyStats stats = new LatencyStats();
+                int unassigned = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    boolean assigned = assign(handler, responders, destinations);
+                    stats.record(System.nanoTime() - start);
+                    if (!assigned) {
+                        unassigned++;
+                    }
+                }
+                log.info("Mission assignment: responders={} destinations={} unassigned={}/{} {}", fleetSize, destinationSize,
+                        unassigned, iterations, stats);
+            }
+        }
+    }
+
+    private boolean assign(RulesBusinessRuleTaskHandler handler, Responders responders, Destinations destinations) {
+        Incident incident = data.incident(incidents++);
+        IncidentPriority incidentPriority = data.incidentPriority(incident);
+        Mission mission = new Mission();
+        mission.setIncidentId(incident.getId());
+        mission.setStatus(Status.REQUESTED);
+
+        WorkItemImpl workItem = new WorkItemImpl();
+        workItem.setName("BusinessRuleTask");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("Language", "DRL");
+        parameters.put("KieSessionType", "stateless");
+        parameters.put("KieSessionName", "cajun-navy-ksession");
+        parameters.put("Incident", incident);
+        parameters.put("Responders", responders);
+        parameters.put("Destinations", destinations);
+        parameters.put("IncidentPriority", incidentPriority);
+        parameters.put("Mission", mission);
+        workItem.setParameters(parameters);
+
+        CapturingWorkItemManager manager = new CapturingWorkItemManager();
+        handler.executeWorkItem(workItem, manager);
+        // the Mission is returned as inserted whether or not a rule fired
+        Mission assigned = (Mission) manager.getResults().get("Mission");
+        if (assigned.getStatus() != Status.ASSIGNED) {
+            assertThat(assigned.getResponderId(), is(nullValue()));
+            return false;
+        }
+        assertThat(assigned.getResponderId(), is(notNullValue()));
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package com.redhat.cajun.navy.process;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+
+/**
+ * Encodes and decodes the payloads of the messages sent by the SendMessage work item. Codecs keep reusable state and are
+ * not thread-safe: use one instance per thread.
+ */
+public interface PayloadCodec {
+
+    String name();
+
+    /**
+     * Encodes the payload into the buffer, replacing its content.
+     */
+    void encode(Object payload, PayloadBuffer buffer);
+
+    Object decode(String messageType, byte[] data, int offset, int length);
+
+    /**
+     * The payload class of each SendMessage message type of the incident process.
+     */
+    static Class<?> payloadType(String messageType) {
+        switch (messageType) {
+            case "SetResponderUnavailable":
+            case "IncidentAssignment":
+            case "CreateMission":
+                return Mission.class;
+            case "UpdateIncident":
+                return Incident.class;
+            default:
+                throw new IllegalArgumentException("Unknown message type " + messageType);
+        }
+    }
+}
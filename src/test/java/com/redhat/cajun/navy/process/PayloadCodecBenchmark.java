@@ -0,0 +1,102 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Mission;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JMH benchmark of the encoding and decoding cost of the SendMessage payloads, per codec and message type. The test
+ * method logs the bytes per message and runs JMH with the GC profiler, which reports the bytes allocated per operation.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=PayloadCodecBenchmark</code>. The JMH iterations and forks are set with
+ * <code>benchmark.jmh.iterations</code> and <code>benchmark.jmh.forks</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PayloadCodecBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PayloadCodecBenchmark.class);
+
+    private static final String[] MESSAGE_TYPES = {"IncidentAssignment", "UpdateIncident"};
+
+    @Param({"json", "binary"})
+    public String codecName;
+
+    @Param({"IncidentAssignment", "UpdateIncident"})
+    public String messageType;
+
+    private PayloadCodec codec;
+
+    private Object payload;
+
+    private final PayloadBuffer buffer = new PayloadBuffer();
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        codec = codec(codecName);
+        payload = payload(messageType);
+        codec.encode(payload, buffer);
+        encoded = buffer.toByteArray();
+    }
+
+    @Benchmark
+    public int encode() {
+        codec.encode(payload, buffer);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(messageType, encoded, 0, encoded.length);
+    }
+
+    @Test
+    public void encodeAndDecode() throws Exception {
+        PayloadBuffer sizes = new PayloadBuffer();
+        for (String codecName : new String[] {"json", "binary"}) {
+            for (String messageType : MESSAGE_TYPES) {
+                codec(codecName).encode(payload(messageType), sizes);
+                log.info("Payload {} {}: {} bytes/message", codecName, messageType, sizes.size());
+            }
+        }
+
+        int iterations = BenchmarkSettings.intValue("benchmark.jmh.iterations", 5);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(PayloadCodecBenchmark.class.getName() + "\\.(encode|decode)$")
+                .warmupIterations(iterations)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(iterations)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(BenchmarkSettings.intValue("benchmark.jmh.forks", 1))
+                .addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+
+    private static PayloadCodec codec(String name) {
+        return "binary".equals(name) ? new BinaryPayloadCodec() : new JsonPayloadCodec();
+    }
+
+    private static Object payload(String messageType) {
+        return PayloadCodec.payloadType(messageType) == Mission.class
+                ? PayloadCodecTest.mission() : PayloadCodecTest.incident();
+    }
+}
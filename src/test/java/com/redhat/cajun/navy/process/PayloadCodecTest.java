@@ -0,0 +1,142 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.Test;
+
+public class PayloadCodecTest {
+
+    private final PayloadBuffer buffer = new PayloadBuffer();
+
+    @Test
+    public void testMissionRoundTrip() {
+        for (PayloadCodec codec : new PayloadCodec[] {new JsonPayloadCodec(), new BinaryPayloadCodec()}) {
+            Mission mission = mission();
+            Mission decoded = (Mission) roundTrip(codec, "IncidentAssignment", mission);
+            assertThat(decoded.getIncidentId(), equalTo(mission.getIncidentId()));
+            assertThat(decoded.getResponderId(), equalTo(mission.getResponderId()));
+            assertThat(decoded.getResponderStartLat(), equalTo(mission.getResponderStartLat()));
+            assertThat(decoded.getResponderStartLong(), equalTo(mission.getResponderStartLong()));
+            assertThat(decoded.getDestinationLat(), equalTo(mission.getDestinationLat()));
+            assertThat(decoded.getDestinationLong(), equalTo(mission.getDestinationLong()));
+            assertThat(decoded.getStatus(), equalTo(Status.ASSIGNED));
+        }
+    }
+
+    @Test
+    public void testIncidentRoundTrip() {
+        for (PayloadCodec codec : new PayloadCodec[] {new JsonPayloadCodec(), new BinaryPayloadCodec()}) {
+            Incident incident = incident();
+            Incident decoded = (Incident) roundTrip(codec, "UpdateIncident", incident);
+            assertThat(decoded.getId(), equalTo(incident.getId()));
+            assertThat(decoded.getLat(), equalTo(incident.getLat()));
+            assertThat(decoded.getLon(), equalTo(incident.getLon()));
+            assertThat(decoded.getNumberOfPeople(), equalTo(3));
+            assertThat(decoded.getMedicalNeeded(), equalTo(true));
+            assertThat(decoded.getVictimName(), equalTo(incident.getVictimName()));
+            assertThat(decoded.getVictimPhoneNumber(), equalTo(incident.getVictimPhoneNumber()));
+            assertThat(decoded.getReportedTime(), equalTo(incident.getReportedTime()));
+            assertThat(decoded.getStatus(), equalTo("ASSIGNED"));
+        }
+    }
+
+    @Test
+    public void testPayloadBounds() {
+        BinaryPayloadCodec codec = new BinaryPayloadCodec();
+        codec.encode(incident(), buffer);
+        byte[] data = Arrays.copyOf(buffer.array(), buffer.size());
+        for (int length : new int[] {data.length - 1, data.length + 1}) {
+            try {
+                codec.decode("UpdateIncident", data, 0, length);
+                fail("Payload of " + data.length + " bytes decoded with length " + length);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        // the bytes after the payload are not read
+        byte[] padded = Arrays.copyOf(data, data.length + 8);
+        Incident decoded = (Incident) codec.decode("UpdateIncident", padded, 0, data.length);
+        assertThat(decoded.getStatus(), equalTo("ASSIGNED"));
+    }
+
+    @Test
+    public void testMissingFields() {
+        Mission mission = new Mission();
+        mission.setIncidentId("incident");
+        Mission decoded = (Mission) roundTrip(new BinaryPayloadCodec(), "SetResponderUnavailable", mission);
+        assertThat(decoded.getIncidentId(), equalTo("incident"));
+        assertThat(decoded.getResponderId(), nullValue());
+        assertThat(decoded.getDestinationLat(), nullValue());
+        assertThat(decoded.getStatus(), nullValue());
+    }
+
+    @Test
+    public void testDecimals() {
+        BinaryPayloadCodec codec = new BinaryPayloadCodec();
+        for (String value : new String[] {"0", "-77.98765", "34.123456789012", "1E+3", "-0.000001", "123456789012345.6789",
+                "3.14159265358979323846"}) {
+            Incident incident = new Incident();
+            incident.setLat(new BigDecimal(value));
+            Incident decoded = (Incident) roundTrip(codec, "UpdateIncident", incident);
+            // same value and same scale
+            assertThat(decoded.getLat(), equalTo(new BigDecimal(value)));
+        }
+    }
+
+    @Test
+    public void testNonAsciiStrings() {
+        Incident incident = new Incident();
+        incident.setId("incident-\u00e9\u4e2d");
+        Incident decoded = (Incident) roundTrip(new BinaryPayloadCodec(), "UpdateIncident", incident);
+        assertThat(decoded.getId(), equalTo(incident.getId()));
+    }
+
+    @Test
+    public void testBinaryIsSmaller() {
+        JsonPayloadCodec json = new JsonPayloadCodec();
+        json.encode(mission(), buffer);
+        int jsonSize = buffer.size();
+        new BinaryPayloadCodec().encode(mission(), buffer);
+        assertThat(buffer.size() < jsonSize / 2, equalTo(true));
+    }
+
+    private Object roundTrip(PayloadCodec codec, String messageType, Object payload) {
+        codec.encode(payload, buffer);
+        return codec.decode(messageType, buffer.array(), 0, buffer.size());
+    }
+
+    static Mission mission() {
+        Mission mission = new Mission();
+        mission.setIncidentId("5d9b2d3a-136f-414f-96ba-1b2a445fee5d");
+        mission.setResponderId("64");
+        mission.setResponderStartLat(new BigDecimal("34.16877"));
+        mission.setResponderStartLong(new BigDecimal("-77.87045"));
+        mission.setDestinationLat(new BigDecimal("34.1706"));
+        mission.setDestinationLong(new BigDecimal("-77.949"));
+        mission.setStatus(Status.ASSIGNED);
+        return mission;
+    }
+
+    static Incident incident() {
+        Incident incident = new Incident();
+        incident.setId("5d9b2d3a-136f-414f-96ba-1b2a445fee5d");
+        incident.setLat(new BigDecimal("34.14338"));
+        incident.setLon(new BigDecimal("-77.86569"));
+        incident.setNumberOfPeople(3);
+        incident.setMedicalNeeded(true);
+        incident.setVictimName("Ren\u00e9e Dupont");
+        incident.setVictimPhoneNumber("(910) 555-0142");
+        incident.setReportedTime(1535546100000L);
+        incident.setStatus("ASSIGNED");
+        return incident;
+    }
+}
@@ -0,0 +1,44 @@
+package com.redhat.cajun.navy.process;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.drools.persistence.info.SessionInfo;
+import org.jbpm.persistence.processinstance.ProcessInstanceInfo;
+
+/**
+ * Reads back the persisted state of process instances, to measure its size.
+ */
+final class PersistedState {
+
+    private PersistedState() {
+    }
+
+    static int processInstanceBytes(EntityManagerFactory emf, long processInstanceId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            ProcessInstanceInfo info = em.find(ProcessInstanceInfo.class, processInstanceId);
+            if (info == null || info.getProcessInstanceByteArray() == null) {
+                return 0;
+            }
+            return info.getProcessInstanceByteArray().length;
+        } finally {
+            em.close();
+        }
+    }
+
+    static long sessionBytes(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            long bytes = 0;
+            for (SessionInfo info : em.createQuery("select s from SessionInfo s", SessionInfo.class).getResultList()) {
+                if (info.getData() != null) {
+                    bytes += info.getData().length;
+                }
+            }
+            return bytes;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.redhat.cajun.navy.process;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.event.process.ProcessEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the incident lifecycle in the three runtime environments of {@link JbpmBaseTestCase#createRuntimeEnvironment}:
+ * persistent (<code>newDefaultBuilder</code> with the entity manager factory), in memory with the default handlers
+ * (<code>newDefaultInMemoryBuilder</code>) and empty (<code>newEmptyBuilder</code>, no data source at all), to put a
+ * number on the cost of the session persistence for each phase of an incident.
+ *
+ * Reports per mode and strategy the lifecycle throughput, the latency and the allocations of every transition, and
+ * the retained heap per incident waiting at signal2. The retained heap needs enough incidents
+ * (<code>-Dbenchmark.activeIncidents</code>) to rise above the noise, and for the persistent mode it includes the rows
+ * of the in-memory H2 database, which a real database keeps out of the JVM.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=PersistenceModeBenchmark -Dbenchmark.incidents=500</code>, restricted
+ * to some modes with e.g. <code>-Dbenchmark.modes=PERSISTENT,EMPTY</code>.
+ */
+@RunWith(Parameterized.class)
+public class PersistenceModeBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceModeBenchmark.class);
+
+    private static final String[] LIFECYCLE = {"ResponderAvailable", "MissionStarted", "VictimPickedUp", "VictimDelivered"};
+
+    private final Mode mode;
+
+    private final Strategy strategy;
+
+    private final Set<Long> completed = ConcurrentHashMap.newKeySet();
+
+    public enum Mode {
+
+        PERSISTENT(true, true),
+        IN_MEMORY(true, false),
+        EMPTY(false, false);
+
+        private final boolean setupDataSource;
+
+        private final boolean sessionPersistence;
+
+        Mode(boolean setupDataSource, boolean sessionPersistence) {
+            this.setupDataSource = setupDataSource;
+            this.sessionPersistence = sessionPersistence;
+        }
+    }
+
+    @Parameters(name = "{0} {1}")
+    public static List<Object[]> modes() {
+        List<Object[]> modes = new ArrayList<>();
+        for (String mode : BenchmarkSettings.stringList("benchmark.modes", "PERSISTENT,IN_MEMORY,EMPTY")) {
+            for (String strategy : BenchmarkSettings.stringList("benchmark.strategies", "SINGLETON,PROCESS_INSTANCE")) {
+                modes.add(new Object[] {Mode.valueOf(mode), Strategy.valueOf(strategy)});
+            }
+        }
+        return modes;
+    }
+
+    public PersistenceModeBenchmark(Mode mode, Strategy strategy) {
+        super(mode.setupDataSource, mode.sessionPersistence);
+        this.mode = mode;
+        this.strategy = strategy;
+        // the in-memory audit logger is not part of the engine measured
+        inMemoryAuditLog = false;
+        if (AllocationProfiler.isSupported()) {
+            allocationProfiler = new AllocationProfiler();
+        }
+    }
+
+    @Test
+    public void lifecycle() throws Exception {
+        int warmup = BenchmarkSettings.intValue("benchmark.warmup", 20);
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 200);
+        int activeIncidents = BenchmarkSettings.intValue("benchmark.activeIncidents", 200);
+
+        mgr = createRuntimeManager(strategy, "persistence-mode", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        Map<String, LatencyStats> transitions = new LinkedHashMap<>();
+        transitions.put("start", new LatencyStats());
+        for (String signal : LIFECYCLE) {
+            transitions.put(signal, new LatencyStats());
+        }
+        long elapsed = 0;
+        for (int i = 0; i < warmup + incidents; i++) {
+            long start = System.nanoTime();
+            long pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60M");
+            long previous = System.nanoTime();
+            if (i >= warmup) {
+                transitions.get("start").record(previous - start);
+            }
+            for (String signal : LIFECYCLE) {
+                signalProcess(mgr, signal, "ResponderAvailable".equals(signal) ? Boolean.TRUE : null, pId);
+                long now = System.nanoTime();
+                if (i >= warmup) {
+                    transitions.get(signal).record(now - previous);
+                }
+                previous = now;
+            }
+            if (i >= warmup) {
+                elapsed += previous - start;
+            }
+            assertTrue(completed.contains(pId));
+        }
+
+        long heapBefore = usedHeapAfterGc();
+        List<Long> pIds = new ArrayList<>();
+        for (int i = 0; i < activeIncidents; i++) {
+            long pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60M");
+            signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+            pIds.add(pId);
+        }
+        long retainedHeap = usedHeapAfterGc() - heapBefore;
+
+        log.info("Persistence mode {} {}: incidents={} throughput={} incidents/s, retained heap={} bytes per incident at signal2",
+                mode, strategy, incidents, String.format("%.1f", incidents * 1e9 / elapsed), retainedHeap / activeIncidents);
+        for (Map.Entry<String, LatencyStats> transition : transitions.entrySet()) {
+            String name = "start".equals(transition.getKey()) ? "start:incident-process" : "signal:" + transition.getKey();
+            log.info("Persistence mode {} {}: {} {} allocated={} KB", mode, strategy, transition.getKey(), transition.getValue(),
+                    allocationProfiler == null ? "n/a" : allocationProfiler.meanBytes(name) / 1024);
+        }
+
+        for (long pId : pIds) {
+            signalProcess(mgr, "MissionAborted", null, pId);
+        }
+    }
+
+    // the audit logs are not available in every mode
+    @Override
+    protected List<ProcessEventListener> getProcessEventListeners() {
+        List<ProcessEventListener> listeners = super.getProcessEventListeners();
+        listeners.add(new DefaultProcessEventListener() {
+
+            @Override
+            public void afterProcessCompleted(ProcessCompletedEvent event) {
+                completed.add(event.getProcessInstance().getId());
+            }
+        });
+        return listeners;
+    }
+}
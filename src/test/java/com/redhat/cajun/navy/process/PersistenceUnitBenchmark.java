@@ -0,0 +1,185 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.hibernate.BaseSessionEventListener;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the lean persistence unit ({@link JbpmBaseTestCase#LEAN_PERSISTENCE_UNIT}, the process engine entities
+ * alone) with the full one ({@link JbpmBaseTestCase#DEFAULT_PERSISTENCE_UNIT}, with the task service, task audit, BAM
+ * and executor entities).
+ *
+ * Reports per unit the bootstrap time of the entity manager factory against the existing schema of the test database,
+ * the first bootstraps of the JVM discarded, and for the incident lifecycle the latency of every transition with the
+ * number and the time of the Hibernate flushes of its transactions, measured by a {@link FlushTimer} registered on every
+ * session. The flushes are the same for both units, the mapped entities which are never loaded do not add to their cost.
+ * Both units are bootstrapped with the same {@link #PERSISTENCE_PROPERTIES}, which turn off the parsing of every named
+ * query at bootstrap (<code>hibernate.query.startup_check</code>); the persistence units themselves keep it.
+ * The unit measured second benefits from the JIT compilation of the first one: compare the units in both orders, with
+ * <code>-Dbenchmark.persistenceUnits</code>, or each in its own run.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=PersistenceUnitBenchmark -Dbenchmark.incidents=500</code>.
+ */
+@RunWith(Parameterized.class)
+public class PersistenceUnitBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceUnitBenchmark.class);
+
+    private static final String[] LIFECYCLE = {"ResponderAvailable", "MissionStarted", "VictimPickedUp", "VictimDelivered"};
+
+    private static final Map<String, Object> PERSISTENCE_PROPERTIES =
+            Collections.singletonMap("hibernate.query.startup_check", "false");
+
+    private final String persistenceUnitName;
+
+    @Parameters(name = "{0}")
+    public static List<Object[]> persistenceUnits() {
+        List<Object[]> units = new ArrayList<>();
+        for (String unit : BenchmarkSettings.stringList("benchmark.persistenceUnits",
+                DEFAULT_PERSISTENCE_UNIT + "," + LEAN_PERSISTENCE_UNIT)) {
+            units.add(new Object[] {unit});
+        }
+        return units;
+    }
+
+    public PersistenceUnitBenchmark(String persistenceUnitName) {
+        super(true, true, persistenceUnitName);
+        this.persistenceUnitName = persistenceUnitName;
+        setPersistenceProperty("hibernate.session.events.auto", FlushTimer.class.getName());
+        PERSISTENCE_PROPERTIES.forEach(this::setPersistenceProperty);
+    }
+
+    @Test
+    public void bootstrap() {
+        int warmup = BenchmarkSettings.intValue("benchmark.bootstrapWarmup", 3);
+        int bootstraps = BenchmarkSettings.intValue("benchmark.bootstraps", 10);
+
+        LatencyStats latency = new LatencyStats();
+        int entities = 0;
+        for (int i = 0; i < warmup + bootstraps; i++) {
+            long start = System.nanoTime();
+            EntityManagerFactory emf = Persistence.createEntityManagerFactory(persistenceUnitName, PERSISTENCE_PROPERTIES);
+            long elapsed = System.nanoTime() - start;
+            entities = emf.getMetamodel().getEntities().size();
+            emf.close();
+            if (i >= warmup) {
+                latency.record(elapsed);
+            }
+        }
+        log.info("Persistence unit {}: entities={} bootstrap {}", persistenceUnitName, entities, latency);
+    }
+
+    @Test
+    public void lifecycle() {
+        int warmup = BenchmarkSettings.intValue("benchmark.warmup", 100);
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 200);
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "persistence-unit", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        Map<String, Transition> transitions = new LinkedHashMap<>();
+        transitions.put("start", new Transition());
+        for (String signal : LIFECYCLE) {
+            transitions.put(signal, new Transition());
+        }
+        for (int i = 0; i < warmup + incidents; i++) {
+            boolean measured = i >= warmup;
+            Transition start = transitions.get("start").begin();
+            long pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60M");
+            start.end(measured);
+            for (String signal : LIFECYCLE) {
+                Transition transition = transitions.get(signal).begin();
+                signalProcess(mgr, signal, "ResponderAvailable".equals(signal) ? Boolean.TRUE : null, pId);
+                transition.end(measured);
+            }
+            assertProcessInstanceCompleted(pId);
+        }
+
+        for (Map.Entry<String, Transition> entry : transitions.entrySet()) {
+            Transition transition = entry.getValue();
+            log.info("Persistence unit {}: {} {} flushes={} flush mean={}us entities flushed={}", persistenceUnitName,
+                    entry.getKey(), transition.latency, String.format("%.1f", (double) transition.flushes / incidents),
+                    String.format("%.1f", transition.flushNanos / 1e3 / Math.max(1, transition.flushes)),
+                    String.format("%.1f", (double) transition.entities / incidents));
+        }
+    }
+
+    /**
+     * Accumulates the flushes of every Hibernate session of the JVM, registered with
+     * <code>hibernate.session.events.auto</code>, which instantiates it for every session.
+     */
+    public static class FlushTimer extends BaseSessionEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final LongAdder flushes = new LongAdder();
+
+        private static final LongAdder flushNanos = new LongAdder();
+
+        private static final LongAdder entities = new LongAdder();
+
+        private long flushStart;
+
+        @Override
+        public void flushStart() {
+            flushStart = System.nanoTime();
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            flushNanos.add(System.nanoTime() - flushStart);
+            flushes.increment();
+            entities.add(numberOfEntities);
+        }
+    }
+
+    private static final class Transition {
+
+        private final LatencyStats latency = new LatencyStats();
+
+        private long flushes;
+
+        private long flushNanos;
+
+        private long entities;
+
+        private long start;
+
+        private long startFlushes;
+
+        private long startFlushNanos;
+
+        private long startEntities;
+
+        private Transition begin() {
+            startFlushes = FlushTimer.flushes.sum();
+            startFlushNanos = FlushTimer.flushNanos.sum();
+            startEntities = FlushTimer.entities.sum();
+            start = System.nanoTime();
+            return this;
+        }
+
+        private void end(boolean measured) {
+            long elapsed = System.nanoTime() - start;
+            if (measured) {
+                latency.record(elapsed);
+                flushes += FlushTimer.flushes.sum() - startFlushes;
+                flushNanos += FlushTimer.flushNanos.sum() - startFlushNanos;
+                entities += FlushTimer.entities.sum() - startEntities;
+            }
+        }
+    }
+}
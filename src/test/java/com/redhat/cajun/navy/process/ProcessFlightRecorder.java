@@ -0,0 +1,39 @@
+package com.redhat.cajun.navy.process;
+
+/**
+ * Java Flight Recorder events of the process engine activity, so that a recording of a benchmark or soak run shows the
+ * process starts, signals, node transitions and work items along with GC, locks and I/O. The duration of each event is
+ * the time spent by the engine on the calling thread. The events are defined in {@link ProcessFlightRecorderEvents}.
+ *
+ * Enabled with <code>-Djbpm.jfr=true</code>, when the runtime has JFR, and recorded with e.g.
+ * <code>-DargLine="-XX:StartFlightRecording=filename=target/incident.jfr,settings=profile"</code>.
+ */
+final class ProcessFlightRecorder {
+
+    public static final String ENABLED_PROPERTY = "jbpm.jfr";
+
+    private static final boolean AVAILABLE = flightRecorderAvailable();
+
+    private ProcessFlightRecorder() {
+    }
+
+    static boolean isEnabled() {
+        return AVAILABLE && Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Whether the runtime has JFR, whatever <code>-Djbpm.jfr</code>.
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    // looked up by name, a runtime image built without the jdk.jfr module has no class to link against
+    private static boolean flightRecorderAvailable() {
+        try {
+            return (Boolean) Class.forName("jdk.jfr.FlightRecorder").getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+}
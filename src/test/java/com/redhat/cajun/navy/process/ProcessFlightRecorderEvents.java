@@ -0,0 +1,118 @@
+package com.redhat.cajun.navy.process;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Java Flight Recorder events of {@link ProcessFlightRecorder}. Only loaded when the events are enabled, a runtime
+ * image without the <code>jdk.jfr</code> module does not have their super classes.
+ */
+final class ProcessFlightRecorderEvents {
+
+    private ProcessFlightRecorderEvents() {
+    }
+
+    /**
+     * Begins a {@link ProcessStart}, committed by {@link #commitProcessStart}. The events are passed around as objects, so
+     * that the callers do not link <code>jdk.jfr</code>.
+     */
+    static Object beginProcessStart(String correlationKey) {
+        ProcessStart event = new ProcessStart();
+        event.correlationKey = correlationKey;
+        event.begin();
+        return event;
+    }
+
+    static void commitProcessStart(Object started, long processInstanceId, String processId) {
+        ProcessStart event = (ProcessStart) started;
+        event.processInstanceId = processInstanceId;
+        event.processId = processId;
+        event.commit();
+    }
+
+    static Object beginSignalDelivery(long processInstanceId, String signal) {
+        SignalDelivery event = new SignalDelivery();
+        event.processInstanceId = processInstanceId;
+        event.signal = signal;
+        event.begin();
+        return event;
+    }
+
+    static void commitSignalDelivery(Object delivery) {
+        ((SignalDelivery) delivery).commit();
+    }
+
+    @Name("com.redhat.cajun.navy.process.ProcessStart")
+    @Label("Process Start")
+    @Description("Start of a process instance, up to its first wait state")
+    @Category({"Cajun Navy", "Incident Process"})
+    static class ProcessStart extends Event {
+
+        @Label("Process Instance Id")
+        long processInstanceId;
+
+        @Label("Process Id")
+        String processId;
+
+        @Label("Correlation Key")
+        String correlationKey;
+    }
+
+    @Name("com.redhat.cajun.navy.process.SignalDelivery")
+    @Label("Signal Delivery")
+    @Description("Delivery of a signal, up to the next wait state, including the disposal of the runtime engine")
+    @Category({"Cajun Navy", "Incident Process"})
+    static class SignalDelivery extends Event {
+
+        @Label("Process Instance Id")
+        long processInstanceId;
+
+        @Label("Signal")
+        String signal;
+    }
+
+    @Name("com.redhat.cajun.navy.process.NodeEnter")
+    @Label("Node Enter")
+    @Description("Triggering of a node, including the nodes it triggers synchronously")
+    @Category({"Cajun Navy", "Incident Process"})
+    static class NodeEnter extends Event {
+
+        @Label("Process Instance Id")
+        long processInstanceId;
+
+        @Label("Node Name")
+        String nodeName;
+    }
+
+    @Name("com.redhat.cajun.navy.process.NodeExit")
+    @Label("Node Exit")
+    @Description("Completion of a node, including the nodes it triggers synchronously")
+    @Category({"Cajun Navy", "Incident Process"})
+    static class NodeExit extends Event {
+
+        @Label("Process Instance Id")
+        long processInstanceId;
+
+        @Label("Node Name")
+        String nodeName;
+    }
+
+    @Name("com.redhat.cajun.navy.process.WorkItemExecution")
+    @Label("Work Item Execution")
+    @Description("Execution of a work item by its handler")
+    @Category({"Cajun Navy", "Incident Process"})
+    static class WorkItemExecution extends Event {
+
+        @Label("Process Instance Id")
+        long processInstanceId;
+
+        @Label("Node Name")
+        String nodeName;
+
+        @Label("Work Item")
+        String workItemName;
+    }
+}
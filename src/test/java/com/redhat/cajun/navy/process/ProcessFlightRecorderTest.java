@@ -0,0 +1,75 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+public class ProcessFlightRecorderTest extends IncidentProcessBenchmarkCase {
+
+    public ProcessFlightRecorderTest() {
+        flightRecorder = ProcessFlightRecorder.isAvailable();
+    }
+
+    @Test
+    public void testIncidentLifecycleEvents() throws Exception {
+        assumeTrue(flightRecorder);
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "flight-recorder", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        Path file = Files.createTempFile("incident-process", ".jfr");
+        long pId;
+        try (Recording recording = new Recording()) {
+            recording.enable(ProcessFlightRecorderEvents.ProcessStart.class);
+            recording.enable(ProcessFlightRecorderEvents.SignalDelivery.class);
+            recording.enable(ProcessFlightRecorderEvents.NodeEnter.class);
+            recording.enable(ProcessFlightRecorderEvents.NodeExit.class);
+            recording.enable(ProcessFlightRecorderEvents.WorkItemExecution.class);
+            recording.start();
+            pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60S");
+            completeLifecycle(pId);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> signals = new ArrayList<>();
+        List<String> nodes = new ArrayList<>();
+        List<String> workItems = new ArrayList<>();
+        int starts = 0;
+        try {
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                String type = event.getEventType().getName();
+                assertThat(event.getLong("processInstanceId"), equalTo(pId));
+                if (type.endsWith("ProcessStart")) {
+                    starts++;
+                } else if (type.endsWith("SignalDelivery")) {
+                    signals.add(event.getString("signal"));
+                } else if (type.endsWith("NodeEnter")) {
+                    nodes.add(event.getString("nodeName"));
+                } else if (type.endsWith("WorkItemExecution")) {
+                    workItems.add(event.getString("workItemName"));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        assertProcessInstanceCompleted(pId);
+        assertThat(starts, equalTo(1));
+        assertThat(signals, equalTo(Arrays.asList("ResponderAvailable", "MissionStarted", "VictimPickedUp", "VictimDelivered")));
+        assertThat(nodes, hasItems("Assign Mission", "Update Incident Delivered"));
+        assertThat(workItems, hasItems("IncidentPriorityService", "ResponderService", "BusinessRuleTask", "SendMessage"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.redhat.cajun.navy.process;
+
+import org.jbpm.workflow.instance.impl.WorkflowProcessInstanceImpl;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.slf4j.MDC;
+
+/**
+ * MDC keys identifying the process instance, the incident and the node a log statement was emitted for.
+ */
+final class ProcessMdc {
+
+    static final String PROCESS_INSTANCE_ID = "processInstanceId";
+
+    static final String INCIDENT_ID = "incidentId";
+
+    static final String NODE_NAME = "nodeName";
+
+    private ProcessMdc() {
+    }
+
+    static void put(ProcessInstance processInstance) {
+        MDC.put(PROCESS_INSTANCE_ID, Long.toString(processInstance.getId()));
+        if (processInstance instanceof WorkflowProcessInstanceImpl) {
+            // the incident id is the correlation key of the process instance
+            String correlationKey = ((WorkflowProcessInstanceImpl) processInstance).getCorrelationKey();
+            if (correlationKey != null) {
+                MDC.put(INCIDENT_ID, correlationKey);
+            }
+        }
+    }
+
+    static void clear() {
+        MDC.remove(PROCESS_INSTANCE_ID);
+        MDC.remove(INCIDENT_ID);
+        MDC.remove(NODE_NAME);
+    }
+}
@@ -0,0 +1,56 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared, versioned local cache for large values (e.g. the Responders snapshot returned by the ResponderService) which
+ * should not be persisted with every process instance.
+ *
+ * Every published value gets a new version. Process instances only keep the {@link CacheReference}, which is resolved
+ * back to the value when the work item that needs it is executed. Only the most recent versions are retained: a
+ * reference must be resolved within the same transaction window, as is the case for the Responders fetched right
+ * before the BusinessRuleTask.
+ */
+public class ReferenceCache<T> {
+
+    private final String name;
+
+    private final int retainedVersions;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final ConcurrentNavigableMap<Long, T> entries = new ConcurrentSkipListMap<>();
+
+    public ReferenceCache(String name, int retainedVersions) {
+        this.name = name;
+        this.retainedVersions = retainedVersions;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CacheReference publish(T value) {
+        long version = versions.incrementAndGet();
+        entries.put(version, value);
+        entries.headMap(version - retainedVersions, true).clear();
+        return new CacheReference(name, version);
+    }
+
+    public T resolve(CacheReference reference) {
+        if (!name.equals(reference.getCache())) {
+            throw new IllegalArgumentException("Reference " + reference + " does not belong to cache " + name);
+        }
+        T value = entries.get(reference.getVersion());
+        if (value == null) {
+            throw new IllegalStateException("Version " + reference.getVersion() + " of cache " + name + " has been evicted");
+        }
+        return value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,69 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.drools.core.process.instance.impl.WorkItemImpl;
+import org.junit.Test;
+
+public class ReferenceCacheTest {
+
+    @Test
+    public void testPublishAndResolve() {
+        ReferenceCache<String> cache = new ReferenceCache<>("test", 2);
+        CacheReference first = cache.publish("first");
+        CacheReference second = cache.publish("second");
+
+        assertThat(first, not(equalTo(second)));
+        assertThat(cache.resolve(first), equalTo("first"));
+        assertThat(cache.resolve(second), equalTo("second"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEvictedVersion() {
+        ReferenceCache<String> cache = new ReferenceCache<>("test", 2);
+        CacheReference first = cache.publish("first");
+        cache.publish("second");
+        cache.publish("third");
+
+        assertThat(cache.size(), equalTo(2));
+        cache.resolve(first);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReferenceOfOtherCache() {
+        ReferenceCache<String> cache = new ReferenceCache<>("test", 2);
+        cache.resolve(new ReferenceCache<String>("other", 2).publish("value"));
+    }
+
+    @Test
+    public void testResolvingWorkItemHandler() {
+        ReferenceCache<Object> cache = new ReferenceCache<>("test", 2);
+        Object value = new Object();
+        CacheReference reference = cache.publish(value);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("Responders", reference);
+        parameters.put("Language", "DRL");
+        WorkItemImpl workItem = new WorkItemImpl();
+        workItem.setId(1);
+        workItem.setParameters(parameters);
+
+        Map<String, Object> resolved = new HashMap<>();
+        ResolvingWorkItemHandler handler = new ResolvingWorkItemHandler(new CompletingWorkItemHandler(wi -> {
+            resolved.putAll(wi.getParameters());
+            return Collections.emptyMap();
+        }), cache);
+        handler.executeWorkItem(workItem, new CapturingWorkItemManager());
+
+        assertThat(resolved.get("Responders"), sameInstance(value));
+        assertThat(resolved.get("Language"), equalTo("DRL"));
+        assertThat(workItem.getParameter("Responders"), equalTo(reference));
+    }
+}
@@ -0,0 +1,63 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.drools.core.process.instance.impl.WorkItemImpl;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+
+/**
+ * Decorates a work item handler: parameters holding a {@link CacheReference} are replaced by the cached value before the
+ * work item is passed to the delegate. The work item stored by the engine keeps the reference.
+ */
+public class ResolvingWorkItemHandler implements WorkItemHandler {
+
+    private final WorkItemHandler delegate;
+
+    private final Map<String, ReferenceCache<?>> caches = new HashMap<>();
+
+    public ResolvingWorkItemHandler(WorkItemHandler delegate, ReferenceCache<?>... caches) {
+        this.delegate = delegate;
+        for (ReferenceCache<?> cache : caches) {
+            this.caches.put(cache.getName(), cache);
+        }
+    }
+
+    @Override
+    public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+        delegate.executeWorkItem(resolve(workItem), manager);
+    }
+
+    @Override
+    public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
+        delegate.abortWorkItem(workItem, manager);
+    }
+
+    private WorkItem resolve(WorkItem workItem) {
+        Map<String, Object> parameters = new HashMap<>(workItem.getParameters());
+        boolean resolved = false;
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            if (entry.getValue() instanceof CacheReference) {
+                CacheReference reference = (CacheReference) entry.getValue();
+                ReferenceCache<?> cache = caches.get(reference.getCache());
+                if (cache == null) {
+                    throw new IllegalStateException("No cache registered for reference " + reference);
+                }
+                entry.setValue(cache.resolve(reference));
+                resolved = true;
+            }
+        }
+        if (!resolved) {
+            return workItem;
+        }
+        WorkItemImpl copy = new WorkItemImpl();
+        copy.setId(workItem.getId());
+        copy.setName(workItem.getName());
+        copy.setProcessInstanceId(workItem.getProcessInstanceId());
+        copy.setState(workItem.getState());
+        copy.setParameters(parameters);
+        return copy;
+    }
+}
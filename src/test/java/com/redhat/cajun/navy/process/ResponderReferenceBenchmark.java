@@ -0,0 +1,65 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.Map;
+import java.util.UUID;
+
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.junit.Test;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the persisted size of an incident and the ResponderAvailable signal latency when the Responders are stored
+ * inline in the process state, and when only a {@link CacheReference} to a shared snapshot is stored.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=ResponderReferenceBenchmark</code>.
+ */
+public class ResponderReferenceBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponderReferenceBenchmark.class);
+
+    private final ReferenceCache<Responders> responderCache = new ReferenceCache<>("responders", 16);
+
+    private Responders fleet;
+
+    private CacheReference fleetReference;
+
+    private boolean referenceMode;
+
+    @Test
+    public void instanceSizeAndSignalLatency() {
+        int[] fleetSizes = BenchmarkSettings.intList("benchmark.fleetSizes", "10,100,1000,5000");
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 50);
+
+        Map<String, WorkItemHandler> handlers = stubWorkItemHandlers();
+        handlers.put("BusinessRuleTask", new ResolvingWorkItemHandler(handlers.get("BusinessRuleTask"), responderCache));
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "responder-reference", handlers, INCIDENT_PROCESS);
+
+        for (int fleetSize : fleetSizes) {
+            fleet = data.responders(fleetSize);
+            fleetReference = responderCache.publish(fleet);
+            for (boolean mode : new boolean[] {false, true}) {
+                referenceMode = mode;
+                LatencyStats signalLatency = new LatencyStats();
+                long bytes = 0;
+                for (int i = 0; i < incidents; i++) {
+                    long pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60S");
+                    bytes += PersistedState.processInstanceBytes(getEmf(), pId);
+                    long start = System.nanoTime();
+                    signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+                    signalLatency.record(System.nanoTime() - start);
+                    assertNodeActive(pId, "signal2");
+                }
+                log.info("Responders {}: fleet={} instance bytes={} ResponderAvailable {}", mode ? "by reference" : "inline",
+                        fleetSize, bytes / incidents, signalLatency);
+            }
+        }
+    }
+
+    @Override
+    protected Object responders(WorkItem workItem) {
+        return referenceMode ? fleetReference : fleet;
+    }
+}
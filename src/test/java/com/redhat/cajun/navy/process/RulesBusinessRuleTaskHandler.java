@@ -0,0 +1,140 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.builder.model.KieSessionModel;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSessionsPool;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+
+/**
+ * BusinessRuleTask handler which evaluates the DRL rules of the incident process for real, instead of returning a canned
+ * Mission.
+ *
+ * KieContainers are built once per kjar and cached for the lifetime of the JVM. Stateless sessions are obtained from a
+ * sessions pool of the KieBase of the requested session, so consecutive invocations reuse the underlying session instead
+ * of creating a new one. The pools of the container (<code>KieContainer.newKieSessionsPool</code>) only serve stateful
+ * session models in this Drools version, and the incident process asks for a stateless one. The pools are sized by the
+ * first handler of the kjar, a handler asking for another size is rejected.
+ *
+ * Registered as the BusinessRuleTask handler of the benchmarks with <code>-Dbenchmark.rules=true</code>, see
+ * {@link IncidentProcessBenchmarkCase#stubWorkItemHandlers()}.
+ */
+public class RulesBusinessRuleTaskHandler implements WorkItemHandler {
+
+    private static final String CLASSPATH_CONTAINER = "classpath";
+
+    private static final Set<String> CONTROL_PARAMETERS = new HashSet<>(Arrays.asList("Language", "KieSessionType", "KieSessionName", "TaskName"));
+
+    private static final ConcurrentMap<String, CachedContainer> containers = new ConcurrentHashMap<>();
+
+    private final CachedContainer container;
+
+    /**
+     * Uses the kjar on the test classpath (cajun-navy-rules-model).
+     */
+    public RulesBusinessRuleTaskHandler(int poolSize) {
+        this.container = cachedContainer(CLASSPATH_CONTAINER,
+                k -> new CachedContainer(KieServices.Factory.get().getKieClasspathContainer(), poolSize), poolSize);
+    }
+
+    public RulesBusinessRuleTaskHandler(String groupId, String artifactId, String version, int poolSize) {
+        KieServices kieServices = KieServices.Factory.get();
+        ReleaseId releaseId = kieServices.newReleaseId(groupId, artifactId, version);
+        this.container = cachedContainer(releaseId.toExternalForm(),
+                k -> new CachedContainer(kieServices.newKieContainer(releaseId), poolSize), poolSize);
+    }
+
+    private static CachedContainer cachedContainer(String key, Function<String, CachedContainer> factory, int poolSize) {
+        CachedContainer cached = containers.computeIfAbsent(key, factory);
+        if (cached.poolSize != poolSize) {
+            throw new IllegalArgumentException("KieContainer " + key + " is cached with a sessions pool of " + cached.poolSize
+                    + ", not " + poolSize);
+        }
+        return cached;
+    }
+
+    @Override
+    public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+        StatelessKieSession session = container.pool((String) workItem.getParameter("KieSessionName")).newStatelessKieSession();
+
+        KieCommands commands = KieServices.Factory.get().getCommands();
+        List<Command<?>> batch = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : workItem.getParameters().entrySet()) {
+            if (CONTROL_PARAMETERS.contains(entry.getKey()) || entry.getValue() == null) {
+                continue;
+            }
+            batch.add(commands.newInsert(entry.getValue(), entry.getKey()));
+        }
+        batch.add(commands.newFireAllRules());
+
+        ExecutionResults executionResults = session.execute(commands.newBatchExecution(batch));
+        Map<String, Object> results = new HashMap<>();
+        for (String identifier : executionResults.getIdentifiers()) {
+            results.put(identifier, executionResults.getValue(identifier));
+        }
+        manager.completeWorkItem(workItem.getId(), results);
+    }
+
+    @Override
+    public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
+    }
+
+    /**
+     * Shuts down the session pools and disposes all cached KieContainers.
+     */
+    public static void disposeContainers() {
+        for (CachedContainer cached : containers.values()) {
+            for (KieSessionsPool pool : cached.pools.values()) {
+                pool.shutdown();
+            }
+            cached.container.dispose();
+        }
+        containers.clear();
+    }
+
+    private static class CachedContainer {
+
+        private final KieContainer container;
+
+        // by session name, the default session under the empty name
+        private final ConcurrentMap<String, KieSessionsPool> pools = new ConcurrentHashMap<>();
+
+        private final int poolSize;
+
+        CachedContainer(KieContainer container, int poolSize) {
+            this.container = container;
+            this.poolSize = poolSize;
+        }
+
+        private KieSessionsPool pool(String kieSessionName) {
+            return pools.computeIfAbsent(kieSessionName == null ? "" : kieSessionName, name -> {
+                if (name.isEmpty()) {
+                    return container.getKieBase().newKieSessionsPool(poolSize);
+                }
+                KieSessionModel model = container.getKieSessionModel(name);
+                if (model == null) {
+                    throw new IllegalArgumentException("Unknown KieSession " + name + " in " + container.getReleaseId());
+                }
+                return container.getKieBase(model.getKieBaseModel().getName()).newKieSessionsPool(poolSize);
+            });
+        }
+    }
+}
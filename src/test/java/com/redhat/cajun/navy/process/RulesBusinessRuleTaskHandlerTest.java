@@ -0,0 +1,65 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Responder;
+import com.redhat.cajun.navy.rules.model.Responders;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.kie.api.runtime.process.WorkItem;
+
+public class RulesBusinessRuleTaskHandlerTest extends IncidentProcessBenchmarkCase {
+
+    private final List<Mission> unavailable = new ArrayList<>();
+
+    public RulesBusinessRuleTaskHandlerTest() {
+        rulesBusinessRuleTask = true;
+    }
+
+    @AfterClass
+    public static void disposeContainers() {
+        RulesBusinessRuleTaskHandler.disposeContainers();
+    }
+
+    @Override
+    protected void sendMessage(WorkItem workItem) {
+        if ("SetResponderUnavailable".equals(workItem.getParameter("MessageType"))) {
+            unavailable.add((Mission) workItem.getParameter("Payload"));
+        }
+    }
+
+    @Test
+    public void testMissionAssignedByRules() {
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "rules", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        // one victim without medical needs, any responder of the fleet can take it
+        Incident incident = incident(UUID.randomUUID().toString());
+        incident.setNumberOfPeople(1);
+        incident.setMedicalNeeded(false);
+        long pId = startIncident(incident, destinations(), "PT60S");
+
+        assertNodeTriggered(pId, "Assign Mission", "Update Responder Availability");
+        assertThat(unavailable.size(), equalTo(1));
+        Mission mission = unavailable.get(0);
+        assertThat(mission.getStatus(), is(Status.ASSIGNED));
+        assertThat(mission.getIncidentId(), equalTo(incident.getId()));
+        List<String> fleet = ((Responders) responders(null)).getResponders().stream().map(Responder::getId).collect(Collectors.toList());
+        assertThat(fleet, hasItem(mission.getResponderId()));
+        assertThat(mission.getDestinationLat(), is(notNullValue()));
+
+        completeLifecycle(pId);
+        assertProcessInstanceCompleted(pId);
+    }
+}
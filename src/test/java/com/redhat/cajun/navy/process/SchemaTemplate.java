@@ -0,0 +1,145 @@
+package com.redhat.cajun.navy.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory H2 database cloned from a pre-built jBPM schema, so that the persistence unit can be bootstrapped without
+ * <code>hibernate.hbm2ddl.auto=update</code> inspecting and migrating the whole schema for every test.
+ *
+ * The template is a script exported from the first database created by <code>hbm2ddl</code>, and shared by all the test
+ * runs and forks through the <code>target/jbpm-schema-template</code> directory. It is keyed by the name of the persistence
+ * unit and a checksum of the persistence units and their mapping files, so a change of a persistence unit builds a new
+ * template, and the lean unit does not build a template without the tables of the full one.
+ *
+ * Enabled with <code>-Djbpm.schemaTemplate=true</code>.
+ */
+public class SchemaTemplate implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaTemplate.class);
+
+    public static final String ENABLED_PROPERTY = "jbpm.schemaTemplate";
+
+    private static final String[] PERSISTENCE_RESOURCES = {"META-INF/persistence.xml", "META-INF/JBPMorm.xml",
+            "META-INF/Taskorm.xml", "META-INF/TaskAuditorm.xml", "META-INF/Executor-orm.xml"};
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private final String url;
+
+    private final Path script;
+
+    private final boolean cloned;
+
+    // an in-memory database is dropped when its last connection is closed
+    private final Connection connection;
+
+    private SchemaTemplate(String url, Path script) throws SQLException {
+        this.url = url;
+        this.script = script;
+        this.connection = DriverManager.getConnection(url, "sa", "");
+        this.cloned = Files.exists(script);
+        if (cloned) {
+            long start = System.nanoTime();
+            execute("RUNSCRIPT FROM '" + script + "'");
+            log.debug("Cloned schema template {} into {} in {} ms", script, url, (System.nanoTime() - start) / 1000000);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Creates a new in-memory database, with the schema of the template of the persistence unit if it has been built
+     * already.
+     */
+    public static SchemaTemplate newDatabase(String persistenceUnitName) {
+        String url = "jdbc:h2:mem:jbpm-" + databases.incrementAndGet() + ";MVCC=true";
+        try {
+            return new SchemaTemplate(url, Paths.get("target", "jbpm-schema-template", persistenceUnitName + "-" + checksum(persistenceUnitName) + ".sql").toAbsolutePath());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to create database " + url, e);
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Whether the schema has been cloned from the template. If not, it has to be created by the persistence unit, and
+     * can be exported with {@link #export()} afterwards.
+     */
+    public boolean isCloned() {
+        return cloned;
+    }
+
+    /**
+     * Exports the schema of this database as the template. Concurrent forks may export at the same time, the script is
+     * moved in place atomically.
+     */
+    public void export() {
+        if (cloned) {
+            return;
+        }
+        try {
+            Files.createDirectories(script.getParent());
+            Path tmp = Files.createTempFile(script.getParent(), "jbpm-", ".sql.tmp");
+            // the schema and the sequences only, the rows written by the test which exports it are not cloned
+            execute("SCRIPT NODATA TO '" + tmp + "'");
+            Files.move(tmp, script, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Exported schema template {}", script);
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Unable to export schema template " + script, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Unable to close database {}", url, e);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String checksum(String persistenceUnitName) {
+        CRC32 crc = new CRC32();
+        crc.update(persistenceUnitName.getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[8192];
+        for (String resource : PERSISTENCE_RESOURCES) {
+            try (InputStream in = SchemaTemplate.class.getClassLoader().getResourceAsStream(resource)) {
+                if (in == null) {
+                    continue;
+                }
+                for (int n; (n = in.read(buffer)) != -1; ) {
+                    crc.update(buffer, 0, n);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read " + resource, e);
+            }
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,121 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jbpm.process.audit.JPAAuditLogService;
+import org.jbpm.process.audit.ProcessInstanceLog;
+import org.junit.After;
+import org.junit.Test;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.internal.process.CorrelationKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs complete incident lifecycles from a pool of worker threads against a {@link ShardedRuntimeManager}, and reports
+ * the throughput against the number of shards and of threads. The speedup is relative to one shard with the same
+ * number of threads.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=ShardScalingBenchmark -Dbenchmark.shards=1,2,4,8 -Dbenchmark.threads=8</code>.
+ * Set <code>-Dbenchmark.separateDatabases=false</code> to share one database between the shards, and
+ * <code>-Dbenchmark.strategies=SINGLETON</code> to select the runtime strategies.
+ */
+public class ShardScalingBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardScalingBenchmark.class);
+
+    private ExecutorService executor;
+
+    @After
+    public void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void throughputAgainstShards() throws Exception {
+        int[] shardCounts = BenchmarkSettings.intList("benchmark.shards", "1,2,4");
+        int[] threadCounts = BenchmarkSettings.intList("benchmark.threads", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        String[] strategies = BenchmarkSettings.stringList("benchmark.strategies", "SINGLETON,PROCESS_INSTANCE");
+        boolean separateDatabases = Boolean.parseBoolean(System.getProperty("benchmark.separateDatabases", "true"));
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 200);
+
+        for (String strategyName : strategies) {
+            Strategy strategy = Strategy.valueOf(strategyName);
+            for (int threads : threadCounts) {
+                executor = Executors.newFixedThreadPool(threads);
+                double baseline = Double.NaN;
+                for (int shards : shardCounts) {
+                    try (ShardedRuntimeManager sharded = createShardedRuntimeManager(strategy, shards, separateDatabases,
+                            "shard-" + strategy + "-" + threads + "-" + shards, stubWorkItemHandlers(), INCIDENT_PROCESS)) {
+                        // warm up every shard
+                        runIncidents(sharded, shards * 5);
+                        long start = System.nanoTime();
+                        Map<CorrelationKey, Long> pIds = runIncidents(sharded, incidents);
+                        long elapsed = System.nanoTime() - start;
+                        assertCompleted(sharded, pIds);
+
+                        double throughput = incidents * 1e9 / elapsed;
+                        if (Double.isNaN(baseline)) {
+                            baseline = throughput;
+                        }
+                        log.info("Sharding {}: shards={} threads={} separate databases={} incidents={} throughput={} incidents/s speedup={}",
+                                strategy, shards, threads, separateDatabases, incidents, String.format("%.1f", throughput),
+                                String.format("%.2f", throughput / baseline));
+                    }
+                }
+                executor.shutdown();
+                executor = null;
+            }
+        }
+    }
+
+    private Map<CorrelationKey, Long> runIncidents(ShardedRuntimeManager sharded, int incidents) throws Exception {
+        Map<CorrelationKey, Future<Long>> lifecycles = new HashMap<>();
+        for (int i = 0; i < incidents; i++) {
+            String incidentId = UUID.randomUUID().toString();
+            CorrelationKey correlationKey = correlationKeyFactory.newCorrelationKey(incidentId);
+            lifecycles.put(correlationKey, executor.submit(() -> {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("incident", incident(incidentId));
+                parameters.put("destinations", destinations());
+                parameters.put("assignmentDelay", "PT60S");
+                long pId = sharded.startProcess("incident-process", correlationKey, parameters);
+                sharded.signalProcess(correlationKey, "ResponderAvailable", Boolean.TRUE);
+                sharded.signalProcess(correlationKey, "MissionStarted", null);
+                sharded.signalProcess(correlationKey, "VictimPickedUp", null);
+                sharded.signalProcess(correlationKey, "VictimDelivered", null);
+                return pId;
+            }));
+        }
+        Map<CorrelationKey, Long> pIds = new HashMap<>();
+        for (Map.Entry<CorrelationKey, Future<Long>> lifecycle : lifecycles.entrySet()) {
+            pIds.put(lifecycle.getKey(), lifecycle.getValue().get(10, TimeUnit.MINUTES));
+        }
+        return pIds;
+    }
+
+    private void assertCompleted(ShardedRuntimeManager sharded, Map<CorrelationKey, Long> pIds) {
+        for (Map.Entry<CorrelationKey, Long> entry : pIds.entrySet()) {
+            // process instance ids are only unique within a shard
+            JPAAuditLogService auditService = new JPAAuditLogService(sharded.getEmf(entry.getKey()));
+            try {
+                ProcessInstanceLog processInstanceLog = auditService.findProcessInstance(entry.getValue());
+                assertThat(processInstanceLog.getCorrelationKey(), equalTo(entry.getKey().toExternalForm()));
+                assertThat(processInstanceLog.getStatus(), equalTo(ProcessInstance.STATE_COMPLETED));
+            } finally {
+                auditService.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+
+import org.drools.core.command.runtime.process.SignalEventCommand;
+import org.drools.core.command.runtime.process.StartCorrelatedProcessCommand;
+import org.kie.api.runtime.manager.RuntimeEngine;
+import org.kie.api.runtime.manager.RuntimeManager;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.internal.process.CorrelationKey;
+import org.kie.internal.runtime.manager.context.CorrelationKeyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Partitions the incidents over K runtime managers, each with its own sessions and optionally its own database. An
+ * incident is routed to a shard by the hash of its correlation key (the incident id), for the start of its process
+ * instance as well as for its signals.
+ *
+ * Process instance ids are only unique within a shard, so process instances are addressed by correlation key.
+ */
+public class ShardedRuntimeManager implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedRuntimeManager.class);
+
+    private final List<RuntimeManager> managers = new ArrayList<>();
+
+    private final List<EntityManagerFactory> emfs = new ArrayList<>();
+
+    // databases, data sources and persistence units owned by the shards, closed after the managers in reverse order
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    void addShard(RuntimeManager manager, EntityManagerFactory emf) {
+        managers.add(manager);
+        emfs.add(emf);
+    }
+
+    void addResource(AutoCloseable resource) {
+        resources.add(resource);
+    }
+
+    public int shards() {
+        return managers.size();
+    }
+
+    public int shardOf(CorrelationKey correlationKey) {
+        return Math.floorMod(correlationKey.toExternalForm().hashCode(), managers.size());
+    }
+
+    public RuntimeManager getManager(CorrelationKey correlationKey) {
+        return managers.get(shardOf(correlationKey));
+    }
+
+    public EntityManagerFactory getEmf(CorrelationKey correlationKey) {
+        return emfs.get(shardOf(correlationKey));
+    }
+
+    /**
+     * Starts a process instance in the shard of the correlation key, and returns its id within the shard.
+     */
+    public long startProcess(String processId, CorrelationKey correlationKey, Map<String, Object> parameters) {
+        RuntimeManager manager = getManager(correlationKey);
+        RuntimeEngine runtimeEngine = manager.getRuntimeEngine(CorrelationKeyContext.get());
+        try {
+            ProcessInstance processInstance = runtimeEngine.getKieSession()
+                    .execute(new StartCorrelatedProcessCommand(processId, correlationKey, parameters));
+            return processInstance.getId();
+        } finally {
+            manager.disposeRuntimeEngine(runtimeEngine);
+        }
+    }
+
+    public void signalProcess(CorrelationKey correlationKey, String type, Object event) {
+        RuntimeManager manager = getManager(correlationKey);
+        RuntimeEngine runtimeEngine = manager.getRuntimeEngine(CorrelationKeyContext.get(correlationKey));
+        try {
+            SignalEventCommand command = new SignalEventCommand(type, event);
+            command.setCorrelationKey(correlationKey);
+            runtimeEngine.getKieSession().execute(command);
+        } finally {
+            manager.disposeRuntimeEngine(runtimeEngine);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (RuntimeManager manager : managers) {
+            manager.close();
+        }
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            AutoCloseable resource = resources.get(i);
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.warn("Unable to close {}", resource, e);
+            }
+        }
+        managers.clear();
+        emfs.clear();
+        resources.clear();
+    }
+}
@@ -0,0 +1,100 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dispatches signals for many process instances onto a fixed number of single-threaded lanes. The lane of a signal is
+ * chosen by striping on the process instance id: signals for the same process instance are always delivered in
+ * submission order, signals for different process instances are delivered in parallel.
+ *
+ * This mirrors the consumption model of the Kafka topics feeding the incident process, where the partition (and so the
+ * consumer thread) is chosen by the incident key.
+ */
+public class SignalDispatcher implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface SignalSink {
+
+        void signal(long processInstanceId, String type, Object event);
+    }
+
+    private final SignalSink sink;
+
+    private final List<ExecutorService> lanes = new ArrayList<>();
+
+    // signals dispatched and not delivered yet, guarded by itself
+    private final Object quiescence = new Object();
+
+    private int pending;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public SignalDispatcher(int lanes, SignalSink sink) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("At least one lane is required");
+        }
+        this.sink = sink;
+        for (int i = 0; i < lanes; i++) {
+            String name = "signal-lane-" + i;
+            this.lanes.add(Executors.newSingleThreadExecutor(r -> new Thread(r, name)));
+        }
+    }
+
+    public int lanes() {
+        return lanes.size();
+    }
+
+    public int laneOf(long processInstanceId) {
+        return (int) Math.floorMod(processInstanceId, (long) lanes.size());
+    }
+
+    public CompletableFuture<Void> dispatch(long processInstanceId, String type, Object event) {
+        synchronized (quiescence) {
+            pending++;
+        }
+        return CompletableFuture.runAsync(() -> sink.signal(processInstanceId, type, event), lanes.get(laneOf(processInstanceId)))
+                .whenComplete((v, t) -> {
+                    if (t != null) {
+                        failure.compareAndSet(null, t);
+                    }
+                    synchronized (quiescence) {
+                        if (--pending == 0) {
+                            quiescence.notifyAll();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Waits until all dispatched signals have been delivered, and rethrows the first delivery failure if any.
+     */
+    public void awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (quiescence) {
+            while (pending > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException(pending + " signals still pending after " + timeout + " " + unit);
+                }
+                TimeUnit.NANOSECONDS.timedWait(quiescence, remaining);
+            }
+        }
+        Throwable t = failure.get();
+        if (t != null) {
+            throw new IllegalStateException("Signal delivery failed", t);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feeds the lifecycle signals of many incidents, interleaved at random but in order per incident, through a
+ * {@link SignalDispatcher}, and reports the signal throughput against the number of lanes.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=SignalDispatcherBenchmark -Dbenchmark.lanes=1,2,4,8</code>.
+ */
+public class SignalDispatcherBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(SignalDispatcherBenchmark.class);
+
+    private static final String[] LIFECYCLE = {"ResponderAvailable", "MissionStarted", "VictimPickedUp", "VictimDelivered"};
+
+    @Test
+    public void throughputAgainstLanes() throws Exception {
+        int[] laneCounts = BenchmarkSettings.intList("benchmark.lanes", "1,2,4," + Runtime.getRuntime().availableProcessors());
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 200);
+        Random random = new Random(42);
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "signal-dispatcher", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        for (int lanes : laneCounts) {
+            List<Long> pIds = new ArrayList<>();
+            for (int i = 0; i < incidents; i++) {
+                pIds.add(startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60S"));
+            }
+
+            int[] next = new int[incidents];
+            List<Integer> remaining = new ArrayList<>();
+            for (int i = 0; i < incidents; i++) {
+                remaining.add(i);
+            }
+            try (SignalDispatcher dispatcher = new SignalDispatcher(lanes,
+                    (pId, type, event) -> signalProcess(mgr, type, event, pId))) {
+                long start = System.nanoTime();
+                while (!remaining.isEmpty()) {
+                    int r = random.nextInt(remaining.size());
+                    int incident = remaining.get(r);
+                    String type = LIFECYCLE[next[incident]++];
+                    dispatcher.dispatch(pIds.get(incident), type, "ResponderAvailable".equals(type) ? Boolean.TRUE : null);
+                    if (next[incident] == LIFECYCLE.length) {
+                        remaining.set(r, remaining.get(remaining.size() - 1));
+                        remaining.remove(remaining.size() - 1);
+                    }
+                }
+                dispatcher.awaitQuiescence(10, TimeUnit.MINUTES);
+                long elapsed = System.nanoTime() - start;
+                log.info("Signal dispatcher: lanes={} incidents={} signals={} throughput={} signals/s", lanes, incidents,
+                        incidents * LIFECYCLE.length, String.format("%.1f", incidents * LIFECYCLE.length * 1e9 / elapsed));
+            }
+
+            for (long pId : pIds) {
+                assertProcessInstanceCompleted(pId);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class SignalDispatcherTest {
+
+    @Test
+    public void testOrderingPerProcessInstance() throws Exception {
+        Map<Long, List<Integer>> delivered = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        try (SignalDispatcher dispatcher = new SignalDispatcher(4, (pId, type, event) -> {
+            threads.add(Thread.currentThread().getName());
+            delivered.computeIfAbsent(pId, k -> Collections.synchronizedList(new ArrayList<>())).add((Integer) event);
+        })) {
+            for (int seq = 0; seq < 100; seq++) {
+                for (long pId = 1; pId <= 20; pId++) {
+                    dispatcher.dispatch(pId, "signal", seq);
+                }
+            }
+            dispatcher.awaitQuiescence(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(delivered.size(), equalTo(20));
+        for (List<Integer> events : delivered.values()) {
+            assertThat(events.size(), equalTo(100));
+            for (int i = 0; i < events.size(); i++) {
+                assertThat(events.get(i), equalTo(i));
+            }
+        }
+        assertThat(threads.size(), equalTo(4));
+    }
+
+    @Test
+    public void testLanesDeliverConcurrently() throws Exception {
+        CountDownLatch otherLaneDelivered = new CountDownLatch(1);
+        AtomicBoolean concurrent = new AtomicBoolean();
+        try (SignalDispatcher dispatcher = new SignalDispatcher(2, (pId, type, event) -> {
+            if (pId == 1) {
+                // blocks its lane until the signal of the other lane is delivered
+                try {
+                    concurrent.set(otherLaneDelivered.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                otherLaneDelivered.countDown();
+            }
+        })) {
+            assertThat(dispatcher.laneOf(1), not(equalTo(dispatcher.laneOf(2))));
+            dispatcher.dispatch(1, "signal", null);
+            dispatcher.dispatch(2, "signal", null);
+            dispatcher.awaitQuiescence(20, TimeUnit.SECONDS);
+        }
+        assertThat(concurrent.get(), is(true));
+    }
+
+    @Test
+    public void testSlowSignalHoldsBackItsProcessInstance() throws Exception {
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        try (SignalDispatcher dispatcher = new SignalDispatcher(4, (pId, type, event) -> {
+            if ("slow".equals(type)) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            delivered.add(type);
+        })) {
+            dispatcher.dispatch(7, "slow", null);
+            dispatcher.dispatch(7, "fast", null);
+            dispatcher.awaitQuiescence(10, TimeUnit.SECONDS);
+        }
+        assertThat(delivered, equalTo(Arrays.asList("slow", "fast")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDeliveryFailure() throws Exception {
+        try (SignalDispatcher dispatcher = new SignalDispatcher(2, (pId, type, event) -> {
+            throw new RuntimeException("delivery failed");
+        })) {
+            dispatcher.dispatch(1, "signal", null);
+            dispatcher.awaitQuiescence(10, TimeUnit.SECONDS);
+        }
+    }
+}
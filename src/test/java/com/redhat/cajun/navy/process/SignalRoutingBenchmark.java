@@ -0,0 +1,85 @@
+package com.redhat.cajun.navy.process;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the cost of an event which concerns a few incidents, such as the withdrawal of a boat, sent as a broadcast
+ * signal, which the engine delivers to every process instance waiting for it, and sent as targeted signals to the
+ * affected incidents found in the {@link SignalRoutingIndex}, against the number of active incidents.
+ *
+ * The incidents wait at signal2, where they also wait for MissionAborted. The targeted signals abort
+ * <code>benchmark.affected</code> incidents at a time, then a single broadcast aborts all the others.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=SignalRoutingBenchmark -Dbenchmark.activeIncidents=100,1000,5000</code>.
+ */
+public class SignalRoutingBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(SignalRoutingBenchmark.class);
+
+    public SignalRoutingBenchmark() {
+        signalRoutingIndex = new SignalRoutingIndex();
+    }
+
+    @Test
+    public void broadcastAgainstTargeted() {
+        int[] activeCounts = BenchmarkSettings.intList("benchmark.activeIncidents", "10,100,1000");
+        int affected = BenchmarkSettings.intValue("benchmark.affected", 1);
+        int iterations = BenchmarkSettings.intValue("benchmark.iterations", 20);
+        Strategy strategy = Strategy.valueOf(System.getProperty("benchmark.strategy", "PROCESS_INSTANCE"));
+
+        mgr = createRuntimeManager(strategy, "signal-routing", stubWorkItemHandlers(), INCIDENT_PROCESS);
+
+        for (int active : activeCounts) {
+            List<String> incidentIds = new ArrayList<>();
+            List<Long> pIds = new ArrayList<>();
+            for (int i = 0; i < active; i++) {
+                String incidentId = UUID.randomUUID().toString();
+                long pId = startIncident(incident(incidentId), destinations(), "PT60S");
+                signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+                incidentIds.add(incidentId);
+                pIds.add(pId);
+            }
+
+            LatencyStats lookup = new LatencyStats();
+            LatencyStats targeted = new LatencyStats();
+            int rounds = Math.min(iterations, active / affected - 1);
+            for (int i = 0; i < rounds; i++) {
+                List<String> withdrawn = incidentIds.subList(i * affected, (i + 1) * affected);
+                long start = System.nanoTime();
+                List<Long> subscribers = signalRoutingIndex.route("MissionAborted", withdrawn);
+                lookup.record(System.nanoTime() - start);
+                assertThat(subscribers.size(), equalTo(affected));
+                for (long pId : subscribers) {
+                    signalProcess(mgr, "MissionAborted", null, pId);
+                }
+                targeted.record(System.nanoTime() - start);
+            }
+
+            int waiting = signalRoutingIndex.subscribers("MissionAborted").size();
+            long start = System.nanoTime();
+            // the manager looks the waiting process instances up and signals each one in its runtime engine, a signal
+            // without instance id in a new engine only reaches the process instances of its session
+            mgr.signalEvent("MissionAborted", null);
+            long broadcast = System.nanoTime() - start;
+
+            log.info("Signal routing: active incidents={} affected={} targeted {}", active, affected, targeted);
+            log.info("Signal routing: active incidents={} routing index lookup {}", active, lookup);
+            log.info("Signal routing: active incidents={} broadcast to {} waiting incidents in {} ms, {} us per incident",
+                    active, waiting, String.format("%.1f", broadcast / 1e6),
+                    String.format("%.1f", broadcast / 1e3 / Math.max(1, waiting)));
+
+            for (long pId : pIds) {
+                assertProcessInstanceCompleted(pId);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.jbpm.workflow.instance.impl.WorkflowProcessInstanceImpl;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.event.process.ProcessNodeLeftEvent;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.event.process.ProcessStartedEvent;
+import org.kie.api.runtime.process.ProcessInstance;
+
+/**
+ * In-memory index of the signals the active process instances wait for, by signal type and by correlation key, kept up
+ * to date from {@link ProcessInstance#getEventTypes()} at every node transition.
+ *
+ * A signal without a process instance id is delivered by the engine to every process instance waiting for its type,
+ * each one loaded in the same transaction. With the index, an event which concerns a few incidents is sent as targeted
+ * signals to those incidents only, see {@link JbpmBaseTestCase#signalIncidents}.
+ *
+ * The index is updated before the transaction commits, so it can be ahead of the database after a rollback: a process
+ * instance which does not wait for a signal anymore ignores it. It only knows about the process instances it has seen,
+ * {@link #rebuild(EntityManagerFactory)} loads the others from the database.
+ *
+ * The base test case only maintains an index with <code>-Djbpm.signalRoutingIndex=true</code>, or when a test sets
+ * {@link JbpmBaseTestCase#signalRoutingIndex} itself, as {@link SignalRoutingBenchmark} does.
+ */
+public class SignalRoutingIndex extends DefaultProcessEventListener {
+
+    public static final String ENABLED_PROPERTY = "jbpm.signalRoutingIndex";
+
+    private final Map<String, Set<Long>> byType = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> byCorrelationKey = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<String>> eventTypes = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * The process instances waiting for the given signal.
+     */
+    public Set<Long> subscribers(String type) {
+        Set<Long> subscribers = byType.get(type);
+        return subscribers == null ? Collections.emptySet() : Collections.unmodifiableSet(subscribers);
+    }
+
+    /**
+     * The process instance of the given correlation key if it waits for the given signal, null otherwise.
+     */
+    public Long subscriber(String type, String correlationKey) {
+        Long processInstanceId = byCorrelationKey.get(correlationKey);
+        if (processInstanceId == null) {
+            return null;
+        }
+        Set<String> types = eventTypes.get(processInstanceId);
+        return types != null && types.contains(type) ? processInstanceId : null;
+    }
+
+    /**
+     * The process instances among the given correlation keys which wait for the given signal.
+     */
+    public List<Long> route(String type, Collection<String> correlationKeys) {
+        List<Long> subscribers = new ArrayList<>();
+        for (String correlationKey : correlationKeys) {
+            Long processInstanceId = subscriber(type, correlationKey);
+            if (processInstanceId != null) {
+                subscribers.add(processInstanceId);
+            }
+        }
+        return subscribers;
+    }
+
+    public int size() {
+        return eventTypes.size();
+    }
+
+    public void clear() {
+        byType.clear();
+        byCorrelationKey.clear();
+        eventTypes.clear();
+    }
+
+    /**
+     * Adds the process instances of the database which wait for a signal, as the engine finds them for a broadcast.
+     */
+    public void rebuild(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<Long, Set<String>> waiting = new HashMap<>();
+            for (Object[] row : em.createQuery("select p.processInstanceId, e from ProcessInstanceInfo p join p.eventTypes e",
+                    Object[].class).getResultList()) {
+                waiting.computeIfAbsent((Long) row[0], k -> new HashSet<>()).add((String) row[1]);
+            }
+            for (Object[] row : em.createQuery("select c.processInstanceId, c.name from CorrelationKeyInfo c", Object[].class)
+                    .getResultList()) {
+                if (waiting.containsKey(row[0])) {
+                    byCorrelationKey.put((String) row[1], (Long) row[0]);
+                }
+            }
+            waiting.forEach((processInstanceId, types) -> update(processInstanceId, types));
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void afterProcessStarted(ProcessStartedEvent event) {
+        update(event.getProcessInstance());
+    }
+
+    // the callbacks of the outermost node are called after the nodes it triggered, so the last update of a command sees
+    // the wait states the process instance ends up in
+    @Override
+    public void afterNodeTriggered(ProcessNodeTriggeredEvent event) {
+        update(event.getProcessInstance());
+    }
+
+    @Override
+    public void afterNodeLeft(ProcessNodeLeftEvent event) {
+        update(event.getProcessInstance());
+    }
+
+    @Override
+    public void afterProcessCompleted(ProcessCompletedEvent event) {
+        ProcessInstance processInstance = event.getProcessInstance();
+        update(processInstance.getId(), Collections.emptySet());
+        String correlationKey = correlationKey(processInstance);
+        if (correlationKey != null) {
+            byCorrelationKey.remove(correlationKey, processInstance.getId());
+        }
+    }
+
+    private void update(ProcessInstance processInstance) {
+        if (processInstance.getState() != ProcessInstance.STATE_ACTIVE) {
+            return;
+        }
+        String correlationKey = correlationKey(processInstance);
+        if (correlationKey != null) {
+            byCorrelationKey.put(correlationKey, processInstance.getId());
+        }
+        update(processInstance.getId(), new HashSet<>(Arrays.asList(processInstance.getEventTypes())));
+    }
+
+    // the updates of a process instance are serialized by the engine, which holds the process instance for the command
+    private void update(long processInstanceId, Set<String> types) {
+        Set<String> previous = types.isEmpty() ? eventTypes.remove(processInstanceId) : eventTypes.put(processInstanceId, types);
+        if (previous != null) {
+            for (String type : previous) {
+                if (!types.contains(type)) {
+                    Set<Long> subscribers = byType.get(type);
+                    if (subscribers != null) {
+                        subscribers.remove(processInstanceId);
+                    }
+                }
+            }
+        }
+        for (String type : types) {
+            if (previous == null || !previous.contains(type)) {
+                byType.computeIfAbsent(type, k -> ConcurrentHashMap.newKeySet()).add(processInstanceId);
+            }
+        }
+    }
+
+    private static String correlationKey(ProcessInstance processInstance) {
+        return processInstance instanceof WorkflowProcessInstanceImpl
+                ? ((WorkflowProcessInstanceImpl) processInstance).getCorrelationKey() : null;
+    }
+}
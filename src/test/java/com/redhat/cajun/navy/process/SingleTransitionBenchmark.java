@@ -0,0 +1,85 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures each transition of the incident lifecycle in isolation: an incident is brought to the wait state before the
+ * transition in an empty database, which is captured, then every iteration restores the {@link DatabaseSnapshot} and
+ * signals the same process instance, so that the measure does not depend on the transitions before it or on a growing
+ * database.
+ *
+ * Reports the time of the transition, of the restore, and of the replay of the lifecycle up to the transition which the
+ * restore replaces.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=SingleTransitionBenchmark -Dbenchmark.iterations=500</code>.
+ */
+public class SingleTransitionBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleTransitionBenchmark.class);
+
+    private static final String[] LIFECYCLE = {"ResponderAvailable", "MissionStarted", "VictimPickedUp", "VictimDelivered"};
+
+    @Test
+    public void transitionsInIsolation() {
+        int warmup = BenchmarkSettings.intValue("benchmark.warmup", 20);
+        int iterations = BenchmarkSettings.intValue("benchmark.iterations", 100);
+
+        mgr = createRuntimeManager(Strategy.PROCESS_INSTANCE, "single-transition", stubWorkItemHandlers(), INCIDENT_PROCESS);
+        takeSnapshot("empty", Collections.emptyMap());
+
+        for (int step = 0; step < LIFECYCLE.length; step++) {
+            String signal = LIFECYCLE[step];
+            Object event = "ResponderAvailable".equals(signal) ? Boolean.TRUE : null;
+
+            LatencyStats replay = new LatencyStats();
+            long pId = 0;
+            for (int i = 0; i < Math.max(1, iterations / 10); i++) {
+                restore("empty");
+                long start = System.nanoTime();
+                pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60M");
+                for (int s = 0; s < step; s++) {
+                    signalProcess(mgr, LIFECYCLE[s], "ResponderAvailable".equals(LIFECYCLE[s]) ? Boolean.TRUE : null, pId);
+                }
+                replay.record(System.nanoTime() - start);
+            }
+            takeSnapshot(signal, Collections.singletonMap("processInstanceId", pId));
+
+            LatencyStats restore = new LatencyStats();
+            LatencyStats transition = new LatencyStats();
+            for (int i = 0; i < warmup + iterations; i++) {
+                long start = System.nanoTime();
+                Map<String, Object> state = restore(signal);
+                long restored = System.nanoTime();
+                signalProcess(mgr, signal, event, (Long) state.get("processInstanceId"));
+                long end = System.nanoTime();
+                if (i >= warmup) {
+                    restore.record(restored - start);
+                    transition.record(end - restored);
+                }
+            }
+            if (step == LIFECYCLE.length - 1) {
+                assertProcessInstanceCompleted(pId);
+            } else {
+                assertNodeActive(pId, "signal" + (step + 2));
+            }
+
+            log.info("Single transition {}: transition {}", signal, transition);
+            log.info("Single transition {}: restore {}", signal, restore);
+            log.info("Single transition {}: replay up to the transition {}", signal, replay);
+        }
+    }
+
+    private Map<String, Object> restore(String step) {
+        Map<String, Object> state = restoreSnapshot(step);
+        if (state == null) {
+            throw new IllegalStateException("Step " + step + " has not been captured");
+        }
+        return state;
+    }
+}
@@ -0,0 +1,95 @@
+package com.redhat.cajun.navy.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parks incidents at each wait state of the incident process, and reports the footprint per active incident: the
+ * retained heap, and the persisted bytes of the process instance and of the sessions (for the singleton strategy the
+ * one session is shared by all the incidents).
+ *
+ * The retained heap is the growth of the used heap after full GCs, so it needs a quiet JVM and enough incidents to rise
+ * above the noise. It includes the rows of the in-memory H2 database, audit logs included: the persisted bytes give the
+ * share of the process state.
+ *
+ * Run with <code>mvn test -Pbenchmark -Dtest=WaitStateFootprintBenchmark -Dbenchmark.incidents=1000</code>.
+ */
+public class WaitStateFootprintBenchmark extends IncidentProcessBenchmarkCase {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitStateFootprintBenchmark.class);
+
+    private enum WaitState {
+
+        // awaiting ResponderAvailable
+        SIGNAL1,
+        // awaiting MissionStarted
+        SIGNAL2,
+        // awaiting VictimPickedUp
+        SIGNAL3,
+        // awaiting VictimDelivered
+        SIGNAL4,
+        // awaiting the next assignment attempt, the responder was not available
+        TIMER
+    }
+
+    @Test
+    public void footprintPerWaitState() throws Exception {
+        int incidents = BenchmarkSettings.intValue("benchmark.incidents", 200);
+
+        for (Strategy strategy : new Strategy[] {Strategy.SINGLETON, Strategy.REQUEST, Strategy.PROCESS_INSTANCE}) {
+            mgr = createRuntimeManager(strategy, "footprint-" + strategy, stubWorkItemHandlers(), INCIDENT_PROCESS);
+            // warm up the caches of the runtime manager, so that they are not accounted to the first wait state
+            park(WaitState.SIGNAL4, 10);
+            for (WaitState waitState : WaitState.values()) {
+                long heapBefore = usedHeapAfterGc();
+                long sessionBytesBefore = PersistedState.sessionBytes(getEmf());
+                List<Long> pIds = park(waitState, incidents);
+                long heap = usedHeapAfterGc() - heapBefore;
+                long sessionBytes = PersistedState.sessionBytes(getEmf()) - sessionBytesBefore;
+                long instanceBytes = 0;
+                for (long pId : pIds) {
+                    instanceBytes += PersistedState.processInstanceBytes(getEmf(), pId);
+                }
+                assertNodeActive(pIds.get(0), waitState.name().toLowerCase());
+                log.info("Footprint {} {}: incidents={} retained heap={} bytes/incident process instance={} bytes/incident "
+                        + "session={} bytes/incident", strategy, waitState, incidents, heap / incidents,
+                        instanceBytes / incidents, sessionBytes / incidents);
+            }
+            disposeRuntimeManager();
+            mgr = null;
+        }
+    }
+
+    private List<Long> park(WaitState waitState, int incidents) {
+        List<Long> pIds = new ArrayList<>();
+        for (int i = 0; i < incidents; i++) {
+            long pId = startIncident(incident(UUID.randomUUID().toString()), destinations(), "PT60M");
+            switch (waitState) {
+                case SIGNAL4:
+                    signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+                    signalProcess(mgr, "MissionStarted", null, pId);
+                    signalProcess(mgr, "VictimPickedUp", null, pId);
+                    break;
+                case SIGNAL3:
+                    signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+                    signalProcess(mgr, "MissionStarted", null, pId);
+                    break;
+                case SIGNAL2:
+                    signalProcess(mgr, "ResponderAvailable", Boolean.TRUE, pId);
+                    break;
+                case TIMER:
+                    signalProcess(mgr, "ResponderAvailable", Boolean.FALSE, pId);
+                    break;
+                default:
+                    break;
+            }
+            pIds.add(pId);
+        }
+        return pIds;
+    }
+}